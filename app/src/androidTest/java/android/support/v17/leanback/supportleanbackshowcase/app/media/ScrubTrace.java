@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * A sequence of seek positions requested by the user, with the time of each request in
+ * milliseconds since the start of the trace.
+ *
+ * Traces are either synthetic, built from D-pad key repeats, or recorded, read from a text file
+ * with one "&lt;millis&gt; &lt;index&gt;" pair per line.
+ */
+final class ScrubTrace {
+
+    // interval of D-pad key repeats on Android TV
+    static final long KEY_REPEAT_MS = 50;
+    // a single key press, as opposed to holding the key
+    static final long KEY_PRESS_MS = 300;
+
+    final String mName;
+    private long[] mTimes = new long[64];
+    private int[] mIndices = new int[64];
+    private int mSize;
+
+    private ScrubTrace(String name) {
+        mName = name;
+    }
+
+    int size() {
+        return mSize;
+    }
+
+    long getTime(int step) {
+        return mTimes[step];
+    }
+
+    int getIndex(int step) {
+        return mIndices[step];
+    }
+
+    /**
+     * @return The highest position of the trace.
+     */
+    int getMaxIndex() {
+        int max = 0;
+        for (int i = 0; i < mSize; i++) {
+            max = Math.max(max, mIndices[i]);
+        }
+        return max;
+    }
+
+    private void add(long time, int index) {
+        if (mSize == mTimes.length) {
+            mTimes = Arrays.copyOf(mTimes, mSize * 2);
+            mIndices = Arrays.copyOf(mIndices, mSize * 2);
+        }
+        mTimes[mSize] = time;
+        mIndices[mSize] = index;
+        mSize++;
+    }
+
+    /**
+     * Holds the key from the start to the end of the video.
+     */
+    static ScrubTrace hold(int positions) {
+        ScrubTrace trace = new ScrubTrace("hold");
+        for (int i = 0; i < positions; i++) {
+            trace.add(i * KEY_REPEAT_MS, i);
+        }
+        return trace;
+    }
+
+    /**
+     * Presses the key repeatedly to step through the first positions, looking at each thumbnail.
+     */
+    static ScrubTrace step(int positions) {
+        ScrubTrace trace = new ScrubTrace("step");
+        for (int i = 0; i < positions; i++) {
+            trace.add(i * KEY_PRESS_MS, i);
+        }
+        return trace;
+    }
+
+    /**
+     * Alternates holding the key in a random direction, short pauses and single presses, the way
+     * a user looks for a scene.
+     */
+    static ScrubTrace search(long seed, int positions, int steps) {
+        ScrubTrace trace = new ScrubTrace("search");
+        Random random = new Random(seed);
+        int index = positions / 2;
+        long time = 0;
+        while (trace.size() < steps) {
+            int direction = random.nextBoolean() ? 1 : -1;
+            boolean held = random.nextInt(3) != 0;
+            int count = held ? 5 + random.nextInt(40) : 1 + random.nextInt(4);
+            for (int i = 0; i < count && trace.size() < steps; i++) {
+                int next = index + direction;
+                if (next < 0 || next >= positions) {
+                    break;
+                }
+                index = next;
+                time += held ? KEY_REPEAT_MS : KEY_PRESS_MS;
+                trace.add(time, index);
+            }
+            // look at the thumbnail before deciding where to go
+            time += 200 + random.nextInt(800);
+        }
+        return trace;
+    }
+
+    /**
+     * Reads a recorded trace, one "&lt;millis&gt; &lt;index&gt;" pair per line. Empty lines and
+     * lines starting with '#' are skipped.
+     */
+    static ScrubTrace read(File file) throws IOException {
+        ScrubTrace trace = new ScrubTrace(file.getName());
+        BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), "UTF-8"));
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\s+");
+                trace.add(Long.parseLong(parts[0]), Integer.parseInt(parts[1]));
+            }
+        } finally {
+            reader.close();
+        }
+        return trace;
+    }
+}
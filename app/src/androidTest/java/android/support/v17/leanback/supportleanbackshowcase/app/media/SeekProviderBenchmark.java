@@ -0,0 +1,355 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.app.Activity;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Bundle;
+import android.os.Debug;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v17.leanback.widget.PlaybackSeekDataProvider;
+import android.util.Log;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Replays scrub traces against the seek thumbnail providers and measures how they keep up.
+ *
+ * Every trace is replayed in real time on the main thread, the way the seek UI calls
+ * {@link PlaybackSeekDataProvider#getThumbnail}. For each provider and trace the benchmark reports
+ * the time to thumbnail percentiles (0 for thumbnails delivered from the caches), the ratio of
+ * requests served synchronously, the prefetched thumbnails dropped unused and the peak memory
+ * above the state before the replay. Synthetic traces are always replayed; a recorded trace can be
+ * added with {@code -e scrubTrace /sdcard/trace.txt}, see {@link ScrubTrace#read(File)}. Results
+ * are logged under the "SeekBenchmark" tag and reported as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class SeekProviderBenchmark {
+
+    private static final String TAG = "SeekBenchmark";
+
+    private static final String ARG_SCRUB_TRACE = "scrubTrace";
+
+    private static final int POSITIONS = 200;
+    private static final long INTERVAL_MS = 1000;
+    private static final int FRAME_WIDTH = 1280;
+    private static final int FRAME_HEIGHT = 720;
+    // decode latency of the simulated provider
+    private static final long SIMULATED_DECODE_MS = 80;
+    private static final long SEED = 20171101L;
+
+    private static final long START_DELAY_MS = 100;
+    // time left for outstanding thumbnails after the last request
+    private static final long DRAIN_MS = 2000;
+    private static final long REPLAY_TIMEOUT_SECONDS = 300;
+
+    private Context mContext;
+    private File mFrameDir;
+    // separate from the app's thumbnail cache, created by the tests which use it
+    private File mThumbnailDir;
+    private ThumbnailDiskCache mDiskCache;
+    private Handler mMainHandler;
+
+    @Before
+    public void setUp() throws IOException {
+        mContext = InstrumentationRegistry.getTargetContext();
+        mMainHandler = new Handler(Looper.getMainLooper());
+        mFrameDir = new File(mContext.getCacheDir(), TAG);
+        assertTrue(mFrameDir.isDirectory() || mFrameDir.mkdirs());
+        mThumbnailDir = new File(mContext.getCacheDir(), TAG + "_thumbnails");
+
+        Bitmap bitmap = Bitmap.createBitmap(FRAME_WIDTH, FRAME_HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        Paint paint = new Paint();
+        paint.setTextSize(FRAME_HEIGHT / 4);
+        paint.setColor(Color.WHITE);
+        for (int i = 1; i <= POSITIONS; i++) {
+            canvas.drawColor(Color.HSVToColor(new float[]{360f * i / POSITIONS, 0.8f, 0.8f}));
+            canvas.drawText(Integer.toString(i), FRAME_WIDTH / 4, FRAME_HEIGHT / 2, paint);
+            OutputStream out = new FileOutputStream(getFramePath(i));
+            try {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+            } finally {
+                out.close();
+            }
+        }
+        bitmap.recycle();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        if (mDiskCache != null) {
+            // no write may recreate a file once the directory is deleted
+            mDiskCache.close();
+            mDiskCache = null;
+        }
+        delete(mThumbnailDir);
+        delete(mFrameDir);
+    }
+
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    @Test
+    public void benchmarkSimulatedProvider() throws Exception {
+        for (ScrubTrace trace : getTraces()) {
+            replay("simulated", new SimulatedDecodeProvider(), trace);
+        }
+    }
+
+    @Test
+    public void benchmarkDiskProvider() throws Exception {
+        for (ScrubTrace trace : getTraces()) {
+            replay("disk", createDiskProvider(null, null), trace);
+        }
+    }
+
+    @Test
+    public void benchmarkDiskProviderWithDiskCache() throws Exception {
+        mDiskCache = new ThumbnailDiskCache(mThumbnailDir);
+        for (ScrubTrace trace : getTraces()) {
+            // a new URI per trace, so the first replay starts with an empty cache
+            String mediaUri = "benchmark://" + trace.mName + "/" + SystemClock.elapsedRealtime();
+            replay("disk_cold", createDiskProvider(mDiskCache, mediaUri), trace);
+            // let the thumbnails of the first replay be written
+            SystemClock.sleep(DRAIN_MS);
+            replay("disk_warm", createDiskProvider(mDiskCache, mediaUri), trace);
+        }
+    }
+
+    private PlaybackSeekDiskDataProvider createDiskProvider(ThumbnailDiskCache diskCache,
+            String mediaUri) {
+        return new PlaybackSeekDiskDataProvider((POSITIONS - 1) * INTERVAL_MS, INTERVAL_MS,
+                new File(mFrameDir, "frame_%04d.jpg").getPath(), diskCache, mediaUri);
+    }
+
+    private File getFramePath(int frame) {
+        return new File(mFrameDir, String.format("frame_%04d.jpg", frame));
+    }
+
+    private List<ScrubTrace> getTraces() throws IOException {
+        List<ScrubTrace> traces = new ArrayList<>();
+        traces.add(ScrubTrace.hold(POSITIONS));
+        traces.add(ScrubTrace.step(40));
+        traces.add(ScrubTrace.search(SEED, POSITIONS, 400));
+        String recorded = InstrumentationRegistry.getArguments().getString(ARG_SCRUB_TRACE);
+        if (recorded != null && !recorded.isEmpty()) {
+            ScrubTrace trace = ScrubTrace.read(new File(recorded));
+            assertTrue("Trace exceeds " + POSITIONS + " positions",
+                    trace.getMaxIndex() < POSITIONS);
+            traces.add(trace);
+        }
+        return traces;
+    }
+
+    /**
+     * Replays the trace against the provider in real time and reports the results.
+     */
+    private void replay(String providerName, final PlaybackSeekDataProvider provider,
+            final ScrubTrace trace) throws InterruptedException {
+        final Replay replay = new Replay(provider, trace);
+        final CountDownLatch done = new CountDownLatch(1);
+        Runtime.getRuntime().gc();
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                replay.mBaselineMemory = getUsedMemory();
+                long start = SystemClock.uptimeMillis() + START_DELAY_MS;
+                long firstTime = trace.getTime(0);
+                for (int i = 0; i < trace.size(); i++) {
+                    final int step = i;
+                    mMainHandler.postAtTime(new Runnable() {
+                        @Override
+                        public void run() {
+                            replay.request(step);
+                        }
+                    }, start + trace.getTime(i) - firstTime);
+                }
+                mMainHandler.postAtTime(new Runnable() {
+                    @Override
+                    public void run() {
+                        replay.finish();
+                        done.countDown();
+                    }
+                }, start + trace.getTime(trace.size() - 1) - firstTime + DRAIN_MS);
+            }
+        });
+        assertTrue("Replay timed out", done.await(REPLAY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        replay.report(providerName);
+    }
+
+    private static long getUsedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        // bitmap pixels live on the native heap since O, on the java heap before
+        return runtime.totalMemory() - runtime.freeMemory() + Debug.getNativeHeapAllocatedSize();
+    }
+
+    /**
+     * State of a single replay, only used on the main thread.
+     */
+    private static class Replay implements PlaybackSeekDataProvider.ResultCallback {
+
+        final PlaybackSeekDataProvider mProvider;
+        final ScrubTrace mTrace;
+        // time of the pending request per position, -1 if none
+        final long[] mRequestTimes = new long[POSITIONS];
+        final long[] mLatencies;
+        int mLatencyCount;
+        int mHits;
+        int mPending;
+        int mPrefetchWaste = -1;
+        long mBaselineMemory;
+        long mPeakMemory;
+        boolean mInRequest;
+
+        Replay(PlaybackSeekDataProvider provider, ScrubTrace trace) {
+            mProvider = provider;
+            mTrace = trace;
+            mLatencies = new long[trace.size()];
+            Arrays.fill(mRequestTimes, -1);
+        }
+
+        void request(int step) {
+            int index = mTrace.getIndex(step);
+            mRequestTimes[index] = SystemClock.uptimeMillis();
+            mInRequest = true;
+            mProvider.getThumbnail(index, this);
+            mInRequest = false;
+            mPeakMemory = Math.max(mPeakMemory, getUsedMemory());
+        }
+
+        @Override
+        public void onThumbnailLoaded(Bitmap bitmap, int index) {
+            long requestTime = mRequestTimes[index];
+            if (requestTime < 0) {
+                return;
+            }
+            mRequestTimes[index] = -1;
+            if (mInRequest) {
+                mHits++;
+            }
+            if (mLatencyCount < mLatencies.length) {
+                mLatencies[mLatencyCount++] = SystemClock.uptimeMillis() - requestTime;
+            }
+            mPeakMemory = Math.max(mPeakMemory, getUsedMemory());
+        }
+
+        void finish() {
+            for (long requestTime : mRequestTimes) {
+                if (requestTime >= 0) {
+                    mPending++;
+                }
+            }
+            if (mProvider instanceof PlaybackSeekAsyncDataProvider) {
+                mPrefetchWaste = ((PlaybackSeekAsyncDataProvider) mProvider)
+                        .getPrefetchWasteCount();
+            }
+            mProvider.reset();
+        }
+
+        void report(String providerName) {
+            long[] latencies = Arrays.copyOf(mLatencies, mLatencyCount);
+            Arrays.sort(latencies);
+            String prefix = providerName + "_" + mTrace.mName;
+            long p50 = percentile(latencies, 50);
+            long p90 = percentile(latencies, 90);
+            long p99 = percentile(latencies, 99);
+            int hitPercent = mHits * 100 / mTrace.size();
+            long peakKb = Math.max(0, mPeakMemory - mBaselineMemory) / 1024;
+            Log.i(TAG, prefix + " requests=" + mTrace.size() + " p50=" + p50 + "ms p90=" + p90
+                    + "ms p99=" + p99 + "ms hits=" + hitPercent + "% pending=" + mPending
+                    + " wasted_prefetches=" + mPrefetchWaste + " peak_memory=" + peakKb + "kB");
+
+            Bundle status = new Bundle();
+            status.putLong(prefix + "_p50_ms", p50);
+            status.putLong(prefix + "_p90_ms", p90);
+            status.putLong(prefix + "_p99_ms", p99);
+            status.putInt(prefix + "_hit_percent", hitPercent);
+            status.putInt(prefix + "_pending", mPending);
+            status.putInt(prefix + "_wasted_prefetches", mPrefetchWaste);
+            status.putLong(prefix + "_peak_memory_kb", peakKb);
+            InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, status);
+        }
+
+        private static long percentile(long[] sorted, int percent) {
+            if (sorted.length == 0) {
+                return -1;
+            }
+            return sorted[Math.min(sorted.length - 1, sorted.length * percent / 100)];
+        }
+    }
+
+    /**
+     * Provider whose thumbnails take a fixed time to decode, without any I/O.
+     */
+    private static class SimulatedDecodeProvider extends PlaybackSeekAsyncDataProvider {
+
+        SimulatedDecodeProvider() {
+            long[] positions = new long[POSITIONS];
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = i * INTERVAL_MS;
+            }
+            setSeekPositions(positions);
+        }
+
+        @Override
+        protected Bitmap doInBackground(Object task, int index, long position) {
+            try {
+                Thread.sleep(SIMULATED_DECODE_MS);
+            } catch (InterruptedException e) {
+                // cancelled
+            }
+            if (isCancelled(task)) {
+                return null;
+            }
+            Bitmap bitmap = obtainBitmap(PlaybackSeekDiskDataProvider.THUMBNAIL_WIDTH,
+                    PlaybackSeekDiskDataProvider.THUMBNAIL_HEIGHT);
+            bitmap.eraseColor(Color.HSVToColor(new float[]{360f * index / POSITIONS, 0.8f, 0.8f}));
+            return bitmap;
+        }
+    }
+}
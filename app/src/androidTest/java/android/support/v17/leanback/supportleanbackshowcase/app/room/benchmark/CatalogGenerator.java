@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.room.benchmark;
+
+import android.support.v17.leanback.supportleanbackshowcase.app.room.db.constant.GsonConstant;
+
+import com.google.gson.stream.JsonWriter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Random;
+
+/**
+ * Generates synthetic catalogs with the same structure as android_tv_videos_new.json, i.e.
+ * {
+ *   "googlevideos": [{
+ *     "category": "...",
+ *     "videos": [{ "description": "", "sources": [""], "card": "", ... }]
+ *   }]
+ * }
+ *
+ * The catalog is streamed straight to a {@link Writer} so even the largest sizes never have to be
+ * held in memory as a string. Video counts per category follow a Zipf distribution, so a few
+ * categories are large and most of them are small, just like a real store front.
+ */
+public class CatalogGenerator {
+
+    private static final String BASE_URL = "https://storage.googleapis.com/android-tv/Sample%20videos/";
+
+    private static final String[] CATEGORIES = {
+            "Google+", "Demo Slam", "Google Developers", "Zeitgeist", "Android", "Chrome",
+            "Google Play", "Nexus", "YouTube", "Search Stories", "Project Glass", "Google Maps",
+            "Google Earth", "Google Drive", "Street View", "Google Photos", "Android Auto",
+            "Android Wear", "Chromecast", "Android TV"
+    };
+
+    private static final String[] WORDS = {
+            "android", "google", "instant", "upload", "hangouts", "search", "story", "music",
+            "video", "new", "dad", "demo", "slam", "developer", "live", "show", "launch", "phone",
+            "family", "travel", "world", "explore", "create", "share", "moment", "memory", "city",
+            "night", "photo", "camera", "journey", "friends", "design", "material", "tv", "watch",
+            "the", "a", "with", "for", "and", "of", "your", "every", "how", "we", "make", "help"
+    };
+
+    // Exponent of the Zipf distribution used to spread videos across categories.
+    private static final double CATEGORY_SKEW = 1.1;
+
+    private final Random mRandom;
+    private final int mCategoryCount;
+
+    public CatalogGenerator(long seed) {
+        this(seed, CATEGORIES.length);
+    }
+
+    public CatalogGenerator(long seed, int categoryCount) {
+        mRandom = new Random(seed);
+        mCategoryCount = Math.min(categoryCount, CATEGORIES.length);
+    }
+
+    /**
+     * @return The name of the category with the given rank, 0 being the most popular one.
+     */
+    public static String getCategoryName(int rank) {
+        return CATEGORIES[rank];
+    }
+
+    public int getCategoryCount() {
+        return mCategoryCount;
+    }
+
+    /**
+     * Computes how many of the {@code videoCount} videos are placed in each category.
+     */
+    public int[] distribute(int videoCount) {
+        double[] weights = new double[mCategoryCount];
+        double total = 0;
+        for (int i = 0; i < mCategoryCount; i++) {
+            weights[i] = 1.0 / Math.pow(i + 1, CATEGORY_SKEW);
+            total += weights[i];
+        }
+        int[] counts = new int[mCategoryCount];
+        int assigned = 0;
+        for (int i = 0; i < mCategoryCount; i++) {
+            counts[i] = (int) (videoCount * weights[i] / total);
+            assigned += counts[i];
+        }
+
+        // the remainder goes to the head of the distribution
+        counts[0] += videoCount - assigned;
+        return counts;
+    }
+
+    /**
+     * Writes a catalog of {@code videoCount} videos to the given writer. The writer is not closed.
+     */
+    public void write(Writer out, int videoCount) throws IOException {
+        int[] counts = distribute(videoCount);
+        JsonWriter writer = new JsonWriter(out);
+        writer.beginObject();
+        writer.name(GsonConstant.GOOGLE_VIDEO_TAG);
+        writer.beginArray();
+        int videoId = 0;
+        for (int i = 0; i < mCategoryCount; i++) {
+            if (counts[i] == 0) {
+                continue;
+            }
+            String category = CATEGORIES[i];
+            writer.beginObject();
+            writer.name("category").value(category);
+            writer.name("videos");
+            writer.beginArray();
+            for (int j = 0; j < counts[i]; j++) {
+                writeVideo(writer, category, videoId++);
+            }
+            writer.endArray();
+            writer.endObject();
+        }
+        writer.endArray();
+        writer.endObject();
+        writer.flush();
+    }
+
+    private void writeVideo(JsonWriter writer, String category, int videoId) throws IOException {
+
+        // titles are 2 to 6 words, descriptions 15 to 60 words, roughly like the real catalog
+        String title = sentence(2 + mRandom.nextInt(5)) + " " + videoId;
+        String folder = BASE_URL + encode(category) + "/" + encode(category + "_ " + title);
+        writer.beginObject();
+        writer.name(GsonConstant.DESCRIPTION).value(sentence(15 + mRandom.nextInt(46)) + ".");
+        writer.name(GsonConstant.VIDEO_URLS);
+        writer.beginArray();
+        writer.value(folder + ".mp4");
+        writer.endArray();
+        writer.name(GsonConstant.CARD_IMAGE_URL).value(folder + "/card.jpg");
+        writer.name(GsonConstant.BACKGROUND_IMAGE_URL).value(folder + "/bg.jpg");
+        writer.name(GsonConstant.TITLE).value(title);
+        writer.name(GsonConstant.STUDIO).value(category);
+        writer.endObject();
+    }
+
+    private String sentence(int wordCount) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < wordCount; i++) {
+            String word = WORDS[mRandom.nextInt(WORDS.length)];
+            if (i == 0) {
+                builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+            } else {
+                builder.append(' ').append(word);
+            }
+        }
+        return builder.toString();
+    }
+
+    private static String encode(String segment) {
+        return segment.replace("%", "%25").replace(" ", "%20").replace("+", "%2B");
+    }
+}
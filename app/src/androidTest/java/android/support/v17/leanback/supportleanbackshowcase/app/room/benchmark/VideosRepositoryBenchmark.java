@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.room.benchmark;
+
+import android.app.Activity;
+import android.arch.lifecycle.LiveData;
+import android.arch.lifecycle.Observer;
+import android.arch.persistence.room.Room;
+import android.content.Context;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.api.VideosWithGoogleTag;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.db.AppDatabase;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.CategoryEntity;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.db.repo.VideosRepository;
+import android.util.Log;
+
+import com.google.gson.Gson;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Times parsing, ingestion, category queries and search through {@link VideosRepository} for
+ * synthetic catalogs of increasing size.
+ *
+ * Sizes default to 1k, 10k and 100k videos and can be overridden with
+ * {@code -e catalogSizes 1000,10000}. The 1M catalog is built and parsed whole in the heap, which
+ * most TV devices can't afford, so it only runs with {@code -e largeCatalog true}. Results are
+ * logged under the "CatalogBenchmark" tag and reported as instrumentation status, one entry per
+ * size and phase.
+ */
+@RunWith(AndroidJUnit4.class)
+public class VideosRepositoryBenchmark {
+
+    private static final String TAG = "CatalogBenchmark";
+
+    private static final String ARG_CATALOG_SIZES = "catalogSizes";
+    private static final String ARG_LARGE_CATALOG = "largeCatalog";
+    private static final int[] DEFAULT_CATALOG_SIZES = {1000, 10000, 100000};
+    private static final int LARGE_CATALOG_SIZE = 1000000;
+
+    private static final long SEED = 20171015L;
+
+    // the longest we are willing to wait for a single live data query to be delivered
+    private static final long QUERY_TIMEOUT_SECONDS = 120;
+
+    @Test
+    public void benchmarkCatalogSizes() throws Exception {
+        for (int size : getCatalogSizes()) {
+            benchmark(size);
+        }
+    }
+
+    private void benchmark(int size) throws Exception {
+        Context context = InstrumentationRegistry.getTargetContext();
+        CatalogGenerator generator = new CatalogGenerator(SEED);
+        File catalog = new File(context.getCacheDir(), "catalog_" + size + ".json");
+        Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(catalog),
+                "UTF-8"));
+        try {
+            generator.write(writer, size);
+        } finally {
+            writer.close();
+        }
+
+        AppDatabase db = Room.inMemoryDatabaseBuilder(context, AppDatabase.class).build();
+        try {
+            long start = SystemClock.elapsedRealtimeNanos();
+            VideosWithGoogleTag videosWithGoogleTag;
+            Reader reader = new BufferedReader(new InputStreamReader(new FileInputStream(catalog),
+                    "UTF-8"));
+            try {
+                videosWithGoogleTag = new Gson().fromJson(reader, VideosWithGoogleTag.class);
+            } finally {
+                reader.close();
+            }
+            report(size, "parse", start);
+
+            VideosRepository repository = new VideosRepository(db);
+            start = SystemClock.elapsedRealtimeNanos();
+            repository.ingest(videosWithGoogleTag);
+            report(size, "ingest", start);
+
+            // drop the parsed model so the queries below run with a realistic heap
+            videosWithGoogleTag = null;
+
+            start = SystemClock.elapsedRealtimeNanos();
+            List<CategoryEntity> categories = awaitValue(repository.getAllCategories());
+            report(size, "allCategories", start);
+            assertFalse(categories.isEmpty());
+
+            int[] counts = generator.distribute(size);
+            int head = 0;
+            int tail = lastNonEmpty(counts);
+
+            start = SystemClock.elapsedRealtimeNanos();
+            List<VideoEntity> headVideos = awaitValue(repository.getVideosInSameCategoryLiveData(
+                    CatalogGenerator.getCategoryName(head)));
+            report(size, "categoryHead", start);
+            assertEquals(counts[head], headVideos.size());
+
+            start = SystemClock.elapsedRealtimeNanos();
+            List<VideoEntity> tailVideos = awaitValue(repository.getVideosInSameCategoryLiveData(
+                    CatalogGenerator.getCategoryName(tail)));
+            report(size, "categoryTail", start);
+            assertEquals(counts[tail], tailVideos.size());
+
+            // same pattern the search fragment sends to the view model
+            start = SystemClock.elapsedRealtimeNanos();
+            List<VideoEntity> searchResult = awaitValue(repository.getSearchResult("%music%"));
+            report(size, "search", start);
+            assertTrue(searchResult.size() <= size);
+
+            start = SystemClock.elapsedRealtimeNanos();
+            awaitValue(repository.getSearchResult("%no such video%"));
+            report(size, "searchMiss", start);
+        } finally {
+            db.close();
+            catalog.delete();
+        }
+    }
+
+    private static int lastNonEmpty(int[] counts) {
+        for (int i = counts.length - 1; i >= 0; i--) {
+            if (counts[i] > 0) {
+                return i;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Observes the live data on the main thread until the first value is delivered.
+     */
+    private static <T> T awaitValue(final LiveData<T> liveData) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(1);
+        final Object[] result = new Object[1];
+        final Observer<T> observer = new Observer<T>() {
+            @Override
+            public void onChanged(@Nullable T value) {
+                result[0] = value;
+                latch.countDown();
+            }
+        };
+        InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                liveData.observeForever(observer);
+            }
+        });
+        try {
+            assertTrue("Query timed out", latch.await(QUERY_TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            InstrumentationRegistry.getInstrumentation().runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    liveData.removeObserver(observer);
+                }
+            });
+        }
+        return (T) result[0];
+    }
+
+    private static void report(int size, String phase, long startNanos) {
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(
+                SystemClock.elapsedRealtimeNanos() - startNanos);
+        Log.i(TAG, "videos=" + size + " " + phase + "=" + elapsedMs + "ms");
+        Bundle status = new Bundle();
+        status.putLong(phase + "_" + size + "_ms", elapsedMs);
+        InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, status);
+    }
+
+    private static int[] getCatalogSizes() {
+        Bundle arguments = InstrumentationRegistry.getArguments();
+        String sizes = arguments.getString(ARG_CATALOG_SIZES);
+        if (sizes == null || sizes.isEmpty()) {
+            if (!Boolean.parseBoolean(arguments.getString(ARG_LARGE_CATALOG))) {
+                return DEFAULT_CATALOG_SIZES;
+            }
+            int[] result = Arrays.copyOf(DEFAULT_CATALOG_SIZES, DEFAULT_CATALOG_SIZES.length + 1);
+            result[DEFAULT_CATALOG_SIZES.length] = LARGE_CATALOG_SIZE;
+            return result;
+        }
+        String[] parts = sizes.split(",");
+        int[] result = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            result[i] = Integer.parseInt(parts[i].trim());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
+
+import android.app.Instrumentation;
+import android.content.Context;
+import android.os.Build;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.models.VideoCard;
+import android.support.v17.leanback.widget.Presenter;
+import android.view.ContextThemeWrapper;
+import android.widget.FrameLayout;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Checks that binding a card view to the card it already shows allocates nothing, for every
+ * {@link AbstractCardPresenter} of the card examples. The VideoCardPresenter of the Room example
+ * isn't covered: creating its cards needs the injected VideosViewModel of a LiveDataRowsActivity.
+ *
+ * Each presenter binds its view once, then binds the same card repeatedly on the main thread.
+ * ART only exposes the bytes allocated by the whole process, accounted one allocation buffer at a
+ * time, so the card is bound often enough that a single small allocation per bind outweighs any
+ * buffer and the work of other threads. The measure is repeated until the images of the first
+ * bind have arrived and their decoders are done allocating.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CardBindAllocationTest {
+
+    private static final int BINDS = 100000;
+    // less than a byte per bind, any allocation on the bind path is at least 8 bytes
+    private static final long MAX_BYTES = BINDS;
+    private static final long SETTLE_TIMEOUT_MS = 5000;
+    private static final String BYTES_ALLOCATED = "art.gc.bytes-allocated";
+
+    @Before
+    public void setUp() {
+        // runtime stats are available from M on
+        assumeTrue(Build.VERSION.SDK_INT >= Build.VERSION_CODES.M);
+    }
+
+    @Test
+    public void imageCardBindDoesNotAllocate() {
+        assertNoAllocations(new ImageCardViewPresenter(getContext()), createCard(new Card()));
+    }
+
+    @Test
+    public void videoCardBindDoesNotAllocate() {
+        VideoCard card = createCard(new VideoCard());
+        card.setImageUrl("android.resource://" + getContext().getPackageName() + "/"
+                + R.drawable.face_01);
+        assertNoAllocations(new VideoCardViewPresenter(getContext()), card);
+    }
+
+    @Test
+    public void singleLineCardBindDoesNotAllocate() {
+        assertNoAllocations(new SingleLineCardPresenter(getContext()), createCard(new Card()));
+    }
+
+    @Test
+    public void iconCardBindDoesNotAllocate() {
+        assertNoAllocations(new IconCardPresenter(getContext()), createCard(new Card()));
+    }
+
+    @Test
+    public void sideInfoCardBindDoesNotAllocate() {
+        assertNoAllocations(new SideInfoCardPresenter(getContext()), createCard(new Card()));
+    }
+
+    @Test
+    public void textCardBindDoesNotAllocate() {
+        assertNoAllocations(new TextCardPresenter(getContext()), createCard(new Card()));
+    }
+
+    @Test
+    public void characterCardBindDoesNotAllocate() {
+        assertNoAllocations(new CharacterCardPresenter(getContext()), createCard(new Card()));
+    }
+
+    private static Context getContext() {
+        return new ContextThemeWrapper(InstrumentationRegistry.getTargetContext(),
+                R.style.Theme_Example_Leanback);
+    }
+
+    private static <T extends Card> T createCard(T card) {
+        card.setTitle("Title");
+        card.setDescription("Description");
+        card.setExtraText("Extra text");
+        card.setFooterColor("#ff7043");
+        card.setSelectedColor("#ff5722");
+        card.setLocalImageResource("face_01");
+        return card;
+    }
+
+    private static void assertNoAllocations(final Presenter presenter, final Card card) {
+        final Presenter.ViewHolder[] holder = new Presenter.ViewHolder[1];
+        final long[] allocated = new long[1];
+
+        Instrumentation instrumentation = InstrumentationRegistry.getInstrumentation();
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                holder[0] = presenter.onCreateViewHolder(new FrameLayout(getContext()));
+                presenter.onBindViewHolder(holder[0], card);
+            }
+        });
+
+        long deadline = SystemClock.uptimeMillis() + SETTLE_TIMEOUT_MS;
+        do {
+            // the images of the first bind are delivered on the main thread
+            instrumentation.waitForIdleSync();
+            instrumentation.runOnMainSync(new Runnable() {
+                @Override
+                public void run() {
+                    long start = getBytesAllocated();
+                    for (int i = 0; i < BINDS; i++) {
+                        presenter.onBindViewHolder(holder[0], card);
+                    }
+                    allocated[0] = getBytesAllocated() - start;
+                }
+            });
+        } while (allocated[0] >= MAX_BYTES && SystemClock.uptimeMillis() < deadline);
+
+        instrumentation.runOnMainSync(new Runnable() {
+            @Override
+            public void run() {
+                presenter.onUnbindViewHolder(holder[0]);
+            }
+        });
+        assertTrue(presenter.getClass().getSimpleName() + " allocated " + allocated[0]
+                + " bytes in " + BINDS + " binds", allocated[0] < MAX_BYTES);
+    }
+
+    private static long getBytesAllocated() {
+        return Long.parseLong(Debug.getRuntimeStat(BYTES_ALLOCATED));
+    }
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.load.engine.DiskCacheStrategy;
+import com.bumptech.glide.request.FutureTarget;
+import com.bumptech.glide.request.RequestOptions;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Measures the memory taken by the card art of a row of 500 video cards, decoding the full
+ * resolution images as before and decoding them at the size of the card with
+ * {@link ImageProfiles#card(int, int)}.
+ *
+ * The images are generated as 1280x720 JPEGs, the size of the card art served by the video
+ * catalog. Memory and disk caches are skipped so every card is actually decoded. Results are
+ * logged under the "CardImageBenchmark" tag and reported as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class CardImageMemoryBenchmark {
+
+    private static final String TAG = "CardImageBenchmark";
+
+    private static final int CARD_COUNT = 500;
+    private static final int IMAGE_COUNT = 20;
+    private static final int IMAGE_WIDTH = 1280;
+    private static final int IMAGE_HEIGHT = 720;
+
+    private Context mContext;
+    private File[] mImages;
+
+    @Before
+    public void setUp() throws IOException {
+        mContext = InstrumentationRegistry.getTargetContext();
+        File dir = new File(mContext.getCacheDir(), TAG);
+        assertTrue(dir.isDirectory() || dir.mkdirs());
+
+        Bitmap bitmap = Bitmap.createBitmap(IMAGE_WIDTH, IMAGE_HEIGHT, Bitmap.Config.ARGB_8888);
+        Canvas canvas = new Canvas(bitmap);
+        mImages = new File[IMAGE_COUNT];
+        for (int i = 0; i < IMAGE_COUNT; i++) {
+            canvas.drawColor(Color.HSVToColor(new float[]{360f * i / IMAGE_COUNT, 0.8f, 0.8f}));
+            mImages[i] = new File(dir, "card_" + i + ".jpg");
+            OutputStream out = new FileOutputStream(mImages[i]);
+            try {
+                bitmap.compress(Bitmap.CompressFormat.JPEG, 90, out);
+            } finally {
+                out.close();
+            }
+        }
+        bitmap.recycle();
+    }
+
+    @After
+    public void tearDown() {
+        for (File image : mImages) {
+            image.delete();
+        }
+        Glide.get(mContext).clearMemory();
+    }
+
+    @Test
+    public void benchmarkCardImageMemory() throws Exception {
+        Resources resources = mContext.getResources();
+        int cardWidth = resources.getDimensionPixelSize(R.dimen.card_width);
+        int cardHeight = resources.getDimensionPixelSize(R.dimen.card_height);
+
+        long fullBytes = loadRow("full", ImageProfiles.CARD);
+        long cardBytes = loadRow("card", ImageProfiles.card(cardWidth, cardHeight));
+        assertTrue(cardBytes < fullBytes);
+    }
+
+    /**
+     * Decodes the card art of a whole row and returns the total size of the decoded bitmaps.
+     */
+    private long loadRow(String profile, RequestOptions options) throws Exception {
+        RequestOptions uncached = options.clone()
+                .skipMemoryCache(true)
+                .diskCacheStrategy(DiskCacheStrategy.NONE);
+        long totalBytes = 0;
+        long start = SystemClock.elapsedRealtimeNanos();
+        for (int i = 0; i < CARD_COUNT; i++) {
+            FutureTarget<Bitmap> target = Glide.with(mContext)
+                    .asBitmap()
+                    .load(mImages[i % IMAGE_COUNT])
+                    .apply(uncached)
+                    .submit();
+            totalBytes += target.get().getAllocationByteCount();
+            Glide.with(mContext).clear(target);
+        }
+        long elapsedUs = TimeUnit.NANOSECONDS.toMicros(SystemClock.elapsedRealtimeNanos() - start);
+        long bytesPerCard = totalBytes / CARD_COUNT;
+        Log.i(TAG, profile + " bytes_per_card=" + bytesPerCard + " row_bytes=" + totalBytes
+                + " time=" + elapsedUs + "us");
+
+        Bundle status = new Bundle();
+        status.putLong(profile + "_bytes_per_card", bytesPerCard);
+        status.putLong(profile + "_row_bytes", totalBytes);
+        status.putLong(profile + "_us", elapsedUs);
+        InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, status);
+        return totalBytes;
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.app.Activity;
+import android.content.res.Resources;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.support.test.InstrumentationRegistry;
+import android.support.test.runner.AndroidJUnit4;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.app.rows.ChannelContents;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.api.VideosWithGoogleTag;
+import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
+import android.support.v17.leanback.supportleanbackshowcase.models.DetailedCard;
+import android.support.v17.leanback.supportleanbackshowcase.models.Movie;
+import android.support.v17.leanback.supportleanbackshowcase.models.SongList;
+import android.util.Log;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares parsing every JSON file in res/raw with Gson's reflective adapters against the
+ * adapters generated for the models annotated with @GenerateTypeAdapter, and against building the
+ * models of the files compiled into java code at build time.
+ *
+ * All classes involved are loaded by an untimed pass first. Each cold round then creates new Gson
+ * instances and parses every file once, which includes building the adapters; the order of the
+ * variants rotates every round so none of them always runs first, and the mean of the rounds is
+ * reported. The warm pass parses all files repeatedly with the same instances and reports the
+ * total. Results are logged under the "GsonBenchmark" tag and reported as instrumentation status.
+ */
+@RunWith(AndroidJUnit4.class)
+public class GsonAdapterBenchmark {
+
+    private static final String TAG = "GsonBenchmark";
+
+    private static final int COLD_ROUNDS = 6;
+    private static final int WARM_ITERATIONS = 50;
+
+    private static final int GENERATED = 0;
+    private static final int REFLECTIVE = 1;
+    private static final int PRECOMPILED = 2;
+    private static final String[] VARIANTS = {"generated", "reflective", "precompiled"};
+
+    private static final int[] RESOURCES = {
+            R.raw.launcher_cards,
+            R.raw.cards_example,
+            R.raw.page_row_example,
+            R.raw.grid_example,
+            R.raw.icon_example,
+            R.raw.settings_row,
+            R.raw.detail_example,
+            R.raw.wizard_example,
+            R.raw.music_consumption_example,
+            R.raw.movie,
+            R.raw.live_movie_debug
+    };
+
+    private static final Class<?>[] TYPES = {
+            CardRow[].class,
+            CardRow[].class,
+            CardRow[].class,
+            CardRow.class,
+            CardRow.class,
+            CardRow.class,
+            DetailedCard.class,
+            Movie.class,
+            SongList.class,
+            ChannelContents[].class,
+            VideosWithGoogleTag.class
+    };
+
+    @Test
+    public void benchmarkGeneratedAdapters() {
+        assertEquals(RESOURCES.length, TYPES.length);
+        Resources resources = InstrumentationRegistry.getTargetContext().getResources();
+
+        for (int variant = 0; variant < VARIANTS.length; variant++) {
+            parse(resources, variant, newGson(variant));
+        }
+
+        Gson[] gsons = new Gson[VARIANTS.length];
+        long[] coldNanos = new long[VARIANTS.length];
+        for (int round = 0; round < COLD_ROUNDS; round++) {
+            for (int i = 0; i < VARIANTS.length; i++) {
+                int variant = (round + i) % VARIANTS.length;
+                long start = SystemClock.elapsedRealtimeNanos();
+                gsons[variant] = newGson(variant);
+                parse(resources, variant, gsons[variant]);
+                coldNanos[variant] += SystemClock.elapsedRealtimeNanos() - start;
+            }
+        }
+
+        long[] warmNanos = new long[VARIANTS.length];
+        for (int iteration = 0; iteration < WARM_ITERATIONS; iteration++) {
+            for (int i = 0; i < VARIANTS.length; i++) {
+                int variant = (iteration + i) % VARIANTS.length;
+                long start = SystemClock.elapsedRealtimeNanos();
+                parse(resources, variant, gsons[variant]);
+                warmNanos[variant] += SystemClock.elapsedRealtimeNanos() - start;
+            }
+        }
+
+        for (int variant = 0; variant < VARIANTS.length; variant++) {
+            report(VARIANTS[variant], "cold", coldNanos[variant] / COLD_ROUNDS);
+            report(VARIANTS[variant], "warm", warmNanos[variant]);
+        }
+    }
+
+    /**
+     * Returns a new Gson instance for the given variant, <code>null</code> for the precompiled
+     * models which don't need one.
+     */
+    private static Gson newGson(int variant) {
+        switch (variant) {
+            case GENERATED:
+                return new GsonBuilder()
+                        .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+                        .create();
+            case REFLECTIVE:
+                return new Gson();
+            default:
+                return null;
+        }
+    }
+
+    private static void parse(Resources resources, int variant, Gson gson) {
+        if (variant == PRECOMPILED) {
+            createPrecompiled(resources);
+        } else {
+            parseAll(resources, gson);
+        }
+    }
+
+    /**
+     * Builds the models of the files which are compiled into java code, no parsing involved.
+     */
+    private static void createPrecompiled(Resources resources) {
+        for (int i = 0; i < RESOURCES.length; i++) {
+            String name = resources.getResourceEntryName(RESOURCES[i]);
+            if (PrecompiledRawModels.contains(name)) {
+                assertTrue(TYPES[i].isInstance(PrecompiledRawModels.create(name)));
+            }
+        }
+    }
+
+    private static void parseAll(Resources resources, Gson gson) {
+        for (int i = 0; i < RESOURCES.length; i++) {
+            assertNotNull(Utils.rawResourceFromJson(resources, RESOURCES[i], gson, TYPES[i]));
+        }
+    }
+
+    private static void report(String adapters, String phase, long elapsedNanos) {
+        long elapsedUs = TimeUnit.NANOSECONDS.toMicros(elapsedNanos);
+        Log.i(TAG, adapters + " " + phase + "=" + elapsedUs + "us");
+        Bundle status = new Bundle();
+        status.putLong(adapters + "_" + phase + "_us", elapsedUs);
+        InstrumentationRegistry.getInstrumentation().sendStatus(Activity.RESULT_OK, status);
+    }
+}
@@ -36,24 +36,23 @@ import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.Car
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
 import android.support.v17.leanback.supportleanbackshowcase.models.Movie;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.ListRow;
 import android.support.v17.leanback.widget.ListRowPresenter;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.OnItemViewSelectedListener;
 import android.support.v17.leanback.widget.Presenter;
-import android.support.v17.leanback.widget.PresenterSelector;
 import android.support.v17.leanback.widget.Row;
 import android.support.v17.leanback.widget.RowPresenter;
 import android.support.v4.app.ActivityOptionsCompat;
-
-import com.google.gson.Gson;
+import android.widget.Toast;
 
 
 public class MainFragment extends BrowseFragment {
 
     private ArrayObjectAdapter mRowsAdapter;
+    private CardPresenterSelector mCardPresenterSelector;
 
     @Override
     public void onActivityCreated(Bundle savedInstanceState) {
@@ -64,24 +63,45 @@ public class MainFragment extends BrowseFragment {
         setupEventListeners();
     }
 
+    @Override
+    public void onDestroyView() {
+        // the card presenters outlive the views, don't keep unused cards around
+        mCardPresenterSelector.releasePreInflated();
+        super.onDestroyView();
+    }
+
     private void setupRowAdapter() {
-        mRowsAdapter = new ArrayObjectAdapter(new ListRowPresenter());
+        // all rows share the card presenters, so they can recycle each other's cards
+        mCardPresenterSelector = new CardPresenterSelector(getActivity());
+        ListRowPresenter rowPresenter = new ListRowPresenter();
+        mCardPresenterSelector.applyRecycledPoolSizes(rowPresenter);
+        mRowsAdapter = new ArrayObjectAdapter(rowPresenter);
         createRows();
         setAdapter(mRowsAdapter);
     }
 
     private void createRows() {
-        String json = Utils
-                .inputStreamToString(getResources().openRawResource(R.raw.launcher_cards));
-        CardRow[] rows = new Gson().fromJson(json, CardRow[].class);
-        for (CardRow row : rows) {
-            mRowsAdapter.add(createCardRow(row));
-        }
+        RawModelCache.getInstance(getActivity()).load(R.raw.launcher_cards, CardRow[].class,
+                new RawModelCache.Callback<CardRow[]>() {
+                    @Override
+                    public void onModelReady(CardRow[] rows) {
+                        if (!isAdded()) return;
+                        for (CardRow row : rows) {
+                            mRowsAdapter.add(createCardRow(row));
+                        }
+                        mCardPresenterSelector.preInflate(rows);
+                    }
+                    @Override
+                    public void onModelFailed(Throwable error) {
+                        if (getActivity() == null) return;
+                        Toast.makeText(getActivity(), R.string.raw_model_error,
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
     }
 
     private ListRow createCardRow(CardRow cardRow) {
-        PresenterSelector presenterSelector = new CardPresenterSelector(getActivity());
-        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(presenterSelector);
+        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(mCardPresenterSelector);
         for (Card card : cardRow.getCards()) {
             listRowAdapter.add(card);
         }
@@ -158,20 +178,8 @@ public class MainFragment extends BrowseFragment {
                     // Let's create a new Wizard for a given Movie. The movie can come from any sort
                     // of data source. To simplify this example we decode it from a JSON source
                     // which might be loaded from a server in a real world example.
-                    intent = new Intent(getActivity().getBaseContext(),
-                            WizardExampleActivity.class);
-
-                    // Prepare extras which contains the Movie and will be passed to the Activity
-                    // which is started through the Intent/.
-                    Bundle extras = new Bundle();
-                    String json = Utils.inputStreamToString(
-                            getResources().openRawResource(R.raw.wizard_example));
-                    Movie movie = new Gson().fromJson(json, Movie.class);
-                    extras.putSerializable("movie", movie);
-                    intent.putExtras(extras);
-
-                    // Finally, start the wizard Activity.
-                    break;
+                    startWizardActivity();
+                    return;
                 }
                 case 10: {
                     intent = new Intent(getActivity().getBaseContext(),
@@ -207,6 +215,29 @@ public class MainFragment extends BrowseFragment {
         }
     }
 
+    private void startWizardActivity() {
+        RawModelCache.getInstance(getActivity()).load(R.raw.wizard_example, Movie.class,
+                new RawModelCache.Callback<Movie>() {
+                    @Override
+                    public void onModelReady(Movie movie) {
+                        if (!isAdded()) return;
+                        Intent intent = new Intent(getActivity().getBaseContext(),
+                                WizardExampleActivity.class);
+
+                        // Prepare extras which contains the Movie and will be passed to the
+                        // Activity which is started through the Intent.
+                        Bundle extras = new Bundle();
+                        extras.putSerializable("movie", movie);
+                        intent.putExtras(extras);
+
+                        // Finally, start the wizard Activity.
+                        Bundle bundle = ActivityOptionsCompat.makeSceneTransitionAnimation(
+                                getActivity()).toBundle();
+                        startActivity(intent, bundle);
+                    }
+                });
+    }
+
     private final class ItemViewSelectedListener implements OnItemViewSelectedListener {
 
         @Override
@@ -26,7 +26,7 @@ import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.Car
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.HeaderItem;
 import android.support.v17.leanback.widget.ImageCardView;
@@ -35,7 +35,6 @@ import android.support.v17.leanback.widget.SectionRow;
 import android.support.v17.leanback.widget.ListRow;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.Presenter;
-import android.support.v17.leanback.widget.PresenterSelector;
 import android.support.v17.leanback.widget.Row;
 import android.support.v17.leanback.widget.RowPresenter;
 import android.support.v17.leanback.widget.SearchOrbView;
@@ -44,8 +43,6 @@ import android.view.View;
 import android.widget.ImageView;
 import android.widget.Toast;
 
-import com.google.gson.Gson;
-
 /**
  * This fragment will be shown when the "Card Examples" card is selected at the home menu. It will
  * display multiple card types.
@@ -53,6 +50,7 @@ import com.google.gson.Gson;
 public class CardExampleFragment extends BrowseFragment {
 
     private ArrayObjectAdapter mRowsAdapter;
+    private CardPresenterSelector mCardPresenterSelector;
 
     @Override public void onActivityCreated(Bundle savedInstanceState) {
         super.onActivityCreated(savedInstanceState);
@@ -60,6 +58,12 @@ public class CardExampleFragment extends BrowseFragment {
         setupRowAdapter();
     }
 
+    @Override public void onDestroyView() {
+        // the card presenters outlive the views, don't keep unused cards around
+        mCardPresenterSelector.releasePreInflated();
+        super.onDestroyView();
+    }
+
     private void setupUi() {
         setHeadersState(HEADERS_ENABLED);
         setHeadersTransitionOnBackEnabled(true);
@@ -84,7 +88,7 @@ public class CardExampleFragment extends BrowseFragment {
                 Intent intent = new Intent(getActivity().getBaseContext(),
                         DetailViewExampleActivity.class);
                 Card card = (Card) item;
-                int imageResId = card.getLocalImageResourceId(getContext());
+                int imageResId = card.getLocalImageResourceId();
                 intent.putExtra(DetailViewExampleFragment.EXTRA_CARD, imageResId);
                 startActivity(intent, bundle);
             }
@@ -95,24 +99,33 @@ public class CardExampleFragment extends BrowseFragment {
     }
 
     private void setupRowAdapter() {
-        mRowsAdapter = new ArrayObjectAdapter(new ShadowRowPresenterSelector());
+        // all rows share the card presenters, so they can recycle each other's cards
+        mCardPresenterSelector = new CardPresenterSelector(getActivity());
+        ShadowRowPresenterSelector rowPresenterSelector = new ShadowRowPresenterSelector();
+        mCardPresenterSelector.applyRecycledPoolSizes(rowPresenterSelector.getPresenters());
+        mRowsAdapter = new ArrayObjectAdapter(rowPresenterSelector);
         setAdapter(mRowsAdapter);
         new Handler().postDelayed(new Runnable() {
             @Override
             public void run() {
                 createRows();
-                startEntranceTransition();
             }
         }, 500);
     }
 
     private void createRows() {
-        String json = Utils
-                .inputStreamToString(getResources().openRawResource(R.raw.cards_example));
-        CardRow[] rows = new Gson().fromJson(json, CardRow[].class);
-        for (CardRow row : rows) {
-            mRowsAdapter.add(createCardRow(row));
-        }
+        RawModelCache.getInstance(getActivity()).load(R.raw.cards_example, CardRow[].class,
+                new RawModelCache.Callback<CardRow[]>() {
+                    @Override
+                    public void onModelReady(CardRow[] rows) {
+                        if (!isAdded()) return;
+                        for (CardRow row : rows) {
+                            mRowsAdapter.add(createCardRow(row));
+                        }
+                        mCardPresenterSelector.preInflate(rows);
+                        startEntranceTransition();
+                    }
+                });
     }
 
     private Row createCardRow(final CardRow cardRow) {
@@ -124,8 +137,7 @@ public class CardExampleFragment extends BrowseFragment {
             case CardRow.TYPE_DEFAULT:
             default:
                 // Build main row using the ImageCardViewPresenter.
-                PresenterSelector presenterSelector = new CardPresenterSelector(getActivity());
-                ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(presenterSelector);
+                ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(mCardPresenterSelector);
                 for (Card card : cardRow.getCards()) {
                     listRowAdapter.add(card);
                 }
@@ -23,7 +23,7 @@ import android.support.v17.leanback.media.MediaPlayerGlue;
 import android.support.v17.leanback.supportleanbackshowcase.models.DetailedCard;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.CardPresenterSelector;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.widget.Action;
@@ -44,8 +44,6 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Toast;
 
-import com.google.gson.Gson;
-
 /**
  * Displays a card with more details using a {@link DetailsFragment}.
  */
@@ -76,10 +74,23 @@ public class DetailViewExampleFragment extends DetailsFragment implements OnItem
     private void setupUi() {
         // Load the card we want to display from a JSON resource. This JSON data could come from
         // anywhere in a real world app, e.g. a server.
-        String json = Utils
-                .inputStreamToString(getResources().openRawResource(R.raw.detail_example));
-        DetailedCard data = new Gson().fromJson(json, DetailedCard.class);
+        RawModelCache.getInstance(getActivity()).load(R.raw.detail_example, DetailedCard.class,
+                new RawModelCache.Callback<DetailedCard>() {
+                    @Override
+                    public void onModelReady(DetailedCard data) {
+                        if (getActivity() == null) return;
+                        setupUi(data);
+                    }
+                    @Override
+                    public void onModelFailed(Throwable error) {
+                        if (getActivity() == null) return;
+                        Toast.makeText(getActivity(), R.string.raw_model_error,
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
+    private void setupUi(DetailedCard data) {
         // Setup fragment
         setTitle(getString(R.string.detail_view_title));
 
@@ -121,7 +132,7 @@ public class DetailViewExampleFragment extends DetailsFragment implements OnItem
 
         // Setup action and detail row.
         DetailsOverviewRow detailsOverview = new DetailsOverviewRow(data);
-        int imageResId = data.getLocalImageResourceId(getActivity());
+        int imageResId = data.getLocalImageResourceId();
 
         Bundle extras = getActivity().getIntent().getExtras();
         if (extras != null && extras.containsKey(EXTRA_CARD)) {
@@ -141,14 +152,14 @@ public class DetailViewExampleFragment extends DetailsFragment implements OnItem
         mRowsAdapter.add(detailsOverview);
 
         // Setup related row.
-        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(
-                new CardPresenterSelector(getActivity()));
+        CardPresenterSelector cardPresenterSelector = new CardPresenterSelector(getActivity());
+        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(cardPresenterSelector);
         for (Card characterCard : data.getCharacters()) listRowAdapter.add(characterCard);
         HeaderItem header = new HeaderItem(0, getString(R.string.header_related));
         mRowsAdapter.add(new CardListRow(header, listRowAdapter, null));
 
         // Setup recommended row.
-        listRowAdapter = new ArrayObjectAdapter(new CardPresenterSelector(getActivity()));
+        listRowAdapter = new ArrayObjectAdapter(cardPresenterSelector);
         for (Card card : data.getRecommended()) listRowAdapter.add(card);
         header = new HeaderItem(1, getString(R.string.header_recommended));
         mRowsAdapter.add(new ListRow(header, listRowAdapter));
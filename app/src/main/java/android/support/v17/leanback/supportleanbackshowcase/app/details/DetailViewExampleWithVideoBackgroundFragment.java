@@ -32,7 +32,7 @@ import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.models.DetailedCard;
 import android.support.v17.leanback.supportleanbackshowcase.models.Movie;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.widget.Action;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.ClassPresenterSelector;
@@ -52,8 +52,6 @@ import android.view.View;
 import android.view.ViewGroup;
 import android.widget.Toast;
 
-import com.google.gson.Gson;
-
 /**
  * Displays a card with more details using a {@link DetailsFragment}.
  */
@@ -87,10 +85,24 @@ public class DetailViewExampleWithVideoBackgroundFragment extends DetailsFragmen
     private void setupUi() {
         // Load the card we want to display from a JSON resource. This JSON data could come from
         // anywhere in a real world app, e.g. a server.
-        String json = Utils
-                .inputStreamToString(getResources().openRawResource(R.raw.detail_example));
-        data = new Gson().fromJson(json, DetailedCard.class);
+        RawModelCache.getInstance(getActivity()).load(R.raw.detail_example, DetailedCard.class,
+                new RawModelCache.Callback<DetailedCard>() {
+                    @Override
+                    public void onModelReady(DetailedCard model) {
+                        if (getActivity() == null) return;
+                        data = model;
+                        setupUi(data);
+                    }
+                    @Override
+                    public void onModelFailed(Throwable error) {
+                        if (getActivity() == null) return;
+                        Toast.makeText(getActivity(), R.string.raw_model_error,
+                                Toast.LENGTH_SHORT).show();
+                    }
+                });
+    }
 
+    private void setupUi(DetailedCard data) {
         // Setup fragment
         setTitle(getString(R.string.detail_view_title));
 
@@ -132,7 +144,7 @@ public class DetailViewExampleWithVideoBackgroundFragment extends DetailsFragmen
 
         // Setup action and detail row.
         DetailsOverviewRow detailsOverview = new DetailsOverviewRow(data);
-        int imageResId = data.getLocalImageResourceId(getActivity());
+        int imageResId = data.getLocalImageResourceId();
 
         Bundle extras = getActivity().getIntent().getExtras();
         if (extras != null && extras.containsKey(EXTRA_CARD)) {
@@ -153,14 +165,14 @@ public class DetailViewExampleWithVideoBackgroundFragment extends DetailsFragmen
         mRowsAdapter.add(detailsOverview);
 
         // Setup related row.
-        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(
-                new CardPresenterSelector(getActivity()));
+        CardPresenterSelector cardPresenterSelector = new CardPresenterSelector(getActivity());
+        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(cardPresenterSelector);
         for (Card characterCard : data.getCharacters()) listRowAdapter.add(characterCard);
         HeaderItem header = new HeaderItem(0, getString(R.string.header_related));
         mRowsAdapter.add(new CardListRow(header, listRowAdapter, null));
 
         // Setup recommended row.
-        listRowAdapter = new ArrayObjectAdapter(new CardPresenterSelector(getActivity()));
+        listRowAdapter = new ArrayObjectAdapter(cardPresenterSelector);
         for (Card card : data.getRecommended()) listRowAdapter.add(card);
         header = new HeaderItem(1, getString(R.string.header_recommended));
         mRowsAdapter.add(new ListRow(header, listRowAdapter));
@@ -193,8 +205,9 @@ public class DetailViewExampleWithVideoBackgroundFragment extends DetailsFragmen
         mDetailsBackground.setupVideoPlayback(playerGlue);
         playerGlue.setTitle(data.getTitle() + " (Main Video)");
         playerGlue.setSubtitle(data.getDescription());
-        playerGlue.getPlayerAdapter().setDataSource(Uri.parse(data.getVideoUrl()));
-        PlaybackSeekDiskDataProvider.setDemoSeekProvider(playerGlue);
+        Uri mediaUri = Uri.parse(data.getVideoUrl());
+        playerGlue.getPlayerAdapter().setDataSource(mediaUri);
+        PlaybackSeekDiskDataProvider.setDemoSeekProvider(playerGlue, mediaUri);
 
         mDetailsBackground.switchToVideo();
     }
@@ -205,23 +218,28 @@ public class DetailViewExampleWithVideoBackgroundFragment extends DetailsFragmen
     }
 
     private void startWizardActivityForPayment() {
-        Intent intent = new Intent(getActivity(),
-                WizardExampleActivity.class);
-
-        // Prepare extras which contains the Movie and will be passed to the Activity
-        // which is started through the Intent.
-        Bundle extras = new Bundle();
-        String json = Utils.inputStreamToString(
-                getResources().openRawResource(R.raw.wizard_example));
-        Movie movie = new Gson().fromJson(json, Movie.class);
-        extras.putSerializable("movie", movie);
-        intent.putExtras(extras);
-
-
-        Bundle bundle = ActivityOptionsCompat.makeSceneTransitionAnimation(getActivity())
-                .toBundle();
-        startActivityForResult(intent,
-                DetailViewExampleWithVideoBackgroundActivity.BUY_MOVIE_REQUEST, bundle);
+        RawModelCache.getInstance(getActivity()).load(R.raw.wizard_example, Movie.class,
+                new RawModelCache.Callback<Movie>() {
+                    @Override
+                    public void onModelReady(Movie movie) {
+                        if (!isAdded()) return;
+                        Intent intent = new Intent(getActivity(),
+                                WizardExampleActivity.class);
+
+                        // Prepare extras which contains the Movie and will be passed to the
+                        // Activity which is started through the Intent.
+                        Bundle extras = new Bundle();
+                        extras.putSerializable("movie", movie);
+                        intent.putExtras(extras);
+
+
+                        Bundle bundle = ActivityOptionsCompat.makeSceneTransitionAnimation(
+                                getActivity()).toBundle();
+                        startActivityForResult(intent,
+                                DetailViewExampleWithVideoBackgroundActivity.BUY_MOVIE_REQUEST,
+                                bundle);
+                    }
+                });
     }
 
     @Override
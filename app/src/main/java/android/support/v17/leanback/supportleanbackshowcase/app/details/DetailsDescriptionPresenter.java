@@ -32,7 +32,6 @@ import javax.inject.Inject;
  */
 public class DetailsDescriptionPresenter extends Presenter {
 
-    private ResourceCache mResourceCache = new ResourceCache();
     private Context mContext;
 
     @Inject
@@ -42,14 +41,18 @@ public class DetailsDescriptionPresenter extends Presenter {
 
     @Override public ViewHolder onCreateViewHolder(ViewGroup parent) {
         View view = LayoutInflater.from(mContext).inflate(R.layout.detail_view_content, null);
+        // every view holder caches its own children
+        ResourceCache.attach(view, R.id.primary_text, R.id.secondary_text_first,
+                R.id.secondary_text_second, R.id.extra_text);
         return new ViewHolder(view);
     }
 
     @Override public void onBindViewHolder(ViewHolder viewHolder, Object item) {
-        TextView primaryText = mResourceCache.getViewById(viewHolder.view, R.id.primary_text);
-        TextView sndText1 = mResourceCache.getViewById(viewHolder.view, R.id.secondary_text_first);
-        TextView sndText2 = mResourceCache.getViewById(viewHolder.view, R.id.secondary_text_second);
-        TextView extraText = mResourceCache.getViewById(viewHolder.view, R.id.extra_text);
+        ResourceCache views = ResourceCache.of(viewHolder.view);
+        TextView primaryText = views.getViewById(R.id.primary_text);
+        TextView sndText1 = views.getViewById(R.id.secondary_text_first);
+        TextView sndText2 = views.getViewById(R.id.secondary_text_second);
+        TextView extraText = views.getViewById(R.id.extra_text);
 
         DetailedCard card = (DetailedCard) item;
         primaryText.setText(card.getTitle());
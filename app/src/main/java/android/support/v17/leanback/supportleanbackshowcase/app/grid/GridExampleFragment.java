@@ -18,7 +18,7 @@ import android.os.Bundle;
 import android.os.Handler;
 import android.support.v17.leanback.app.VerticalGridFragment;
 import android.support.v17.leanback.supportleanbackshowcase.R;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
 import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.CardPresenterSelector;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
@@ -26,8 +26,6 @@ import android.support.v17.leanback.widget.FocusHighlight;
 import android.support.v17.leanback.widget.PresenterSelector;
 import android.support.v17.leanback.widget.VerticalGridPresenter;
 
-import com.google.gson.Gson;
-
 /**
  * An example how to use leanback's {@link VerticalGridFragment}.
  */
@@ -58,15 +56,19 @@ public class GridExampleFragment extends VerticalGridFragment {
             @Override
             public void run() {
                 createRows();
-                startEntranceTransition();
             }
         }, 1000);
     }
 
     private void createRows() {
-        String json = Utils.inputStreamToString(getResources()
-                .openRawResource(R.raw.grid_example));
-        CardRow row = new Gson().fromJson(json, CardRow.class);
-        mAdapter.addAll(0, row.getCards());
+        RawModelCache.getInstance(getActivity()).load(R.raw.grid_example, CardRow.class,
+                new RawModelCache.Callback<CardRow>() {
+                    @Override
+                    public void onModelReady(CardRow row) {
+                        if (!isAdded()) return;
+                        mAdapter.addAll(0, row.getCards());
+                        startEntranceTransition();
+                    }
+                });
     }
 }
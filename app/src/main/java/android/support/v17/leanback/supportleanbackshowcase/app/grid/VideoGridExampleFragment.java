@@ -26,6 +26,7 @@ import android.support.v17.leanback.supportleanbackshowcase.app.media.VideoExamp
 import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.VideoCardViewPresenter;
 import android.support.v17.leanback.supportleanbackshowcase.models.VideoCard;
 import android.support.v17.leanback.supportleanbackshowcase.models.VideoRow;
+import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.CardPresenterSelector;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.FocusHighlight;
@@ -39,8 +40,6 @@ import android.support.v17.leanback.widget.VerticalGridPresenter;
 import android.util.Log;
 import android.widget.Toast;
 
-import com.google.gson.Gson;
-
 import org.json.JSONException;
 import org.json.JSONObject;
 
@@ -115,7 +114,7 @@ public class VideoGridExampleFragment extends VerticalGridFragment implements
     private void onFetchVideosInfoSuccess(JSONObject jsonObj) {
         try {
             String videoRowsJson = jsonObj.getString(TAG_CATEGORY);
-            VideoRow[] videoRows = new Gson().fromJson(videoRowsJson, VideoRow[].class);
+            VideoRow[] videoRows = Utils.getGson().fromJson(videoRowsJson, VideoRow[].class);
             for(VideoRow videoRow : videoRows) {
                 if (!categoryVideosMap.containsKey(videoRow.getCategory())) {
                     categoryVideosMap.put(videoRow.getCategory(), new ArrayList<VideoCard>());
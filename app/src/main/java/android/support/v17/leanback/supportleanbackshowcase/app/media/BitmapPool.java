@@ -0,0 +1,110 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.graphics.Bitmap;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Mutable bitmaps which are no longer displayed, kept so new thumbnails can be decoded into their
+ * memory (BitmapFactory.Options#inBitmap) instead of allocating a new bitmap each time.
+ *
+ * The pool holds at most the given number of bytes; when full, the bitmaps added first are left
+ * to the GC. Thread safe.
+ */
+final class BitmapPool {
+
+    private final int mMaxSize;
+    // guarded by this
+    private final ArrayDeque<Bitmap> mBitmaps = new ArrayDeque<>();
+    private int mSize;
+
+    /**
+     * @param maxSize The maximum size of the pool in bytes.
+     */
+    BitmapPool(int maxSize) {
+        mMaxSize = maxSize;
+    }
+
+    /**
+     * Adds a bitmap to the pool. Immutable and recycled bitmaps are ignored, the caller must not
+     * use the bitmap afterwards.
+     */
+    synchronized void put(Bitmap bitmap) {
+        if (bitmap == null || !bitmap.isMutable() || bitmap.isRecycled()) {
+            return;
+        }
+        int size = bitmap.getAllocationByteCount();
+        if (size > mMaxSize) {
+            return;
+        }
+        while (mSize + size > mMaxSize) {
+            mSize -= mBitmaps.poll().getAllocationByteCount();
+        }
+        mBitmaps.add(bitmap);
+        mSize += size;
+    }
+
+    /**
+     * Takes a bitmap out of the pool which is reconfigured to the given size, so it can be decoded
+     * into or drawn on. Prefers the most recently added bitmap which is large enough.
+     *
+     * @return The bitmap, or <code>null</code> if no bitmap in the pool is large enough.
+     */
+    @Nullable
+    synchronized Bitmap get(int width, int height, Bitmap.Config config) {
+        int needed = width * height * getBytesPerPixel(config);
+        for (Iterator<Bitmap> it = mBitmaps.descendingIterator(); it.hasNext(); ) {
+            Bitmap bitmap = it.next();
+            int size = bitmap.getAllocationByteCount();
+            if (size >= needed) {
+                it.remove();
+                mSize -= size;
+                bitmap.reconfigure(width, height, config);
+                return bitmap;
+            }
+        }
+        return null;
+    }
+
+    synchronized void clear() {
+        mBitmaps.clear();
+        mSize = 0;
+    }
+
+    /**
+     * @return The number of bytes held by the pool.
+     */
+    synchronized int size() {
+        return mSize;
+    }
+
+    private static int getBytesPerPixel(Bitmap.Config config) {
+        switch (config) {
+            case ALPHA_8:
+                return 1;
+            case RGB_565:
+            case ARGB_4444:
+                return 2;
+            default:
+                return 4;
+        }
+    }
+}
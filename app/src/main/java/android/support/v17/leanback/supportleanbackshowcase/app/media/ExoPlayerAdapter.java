@@ -3,7 +3,6 @@ package android.support.v17.leanback.supportleanbackshowcase.app.media;
 import android.content.Context;
 import android.media.AudioManager;
 import android.net.Uri;
-import android.os.Handler;
 import android.support.v17.leanback.media.PlaybackGlueHost;
 import android.support.v17.leanback.media.PlayerAdapter;
 import android.support.v17.leanback.media.SurfaceHolderGlueHost;
@@ -23,6 +22,7 @@ import com.google.android.exoplayer2.source.MediaSource;
 import com.google.android.exoplayer2.source.TrackGroupArray;
 import com.google.android.exoplayer2.trackselection.DefaultTrackSelector;
 import com.google.android.exoplayer2.trackselection.TrackSelectionArray;
+import com.google.android.exoplayer2.upstream.DataSource;
 import com.google.android.exoplayer2.upstream.DefaultDataSourceFactory;
 import com.google.android.exoplayer2.util.Util;
 
@@ -34,15 +34,25 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
     Context mContext;
     final SimpleExoPlayer mPlayer;
     SurfaceHolderGlueHost mSurfaceHolderGlueHost;
-    final Runnable mRunnable = new Runnable() {
-        @Override
-        public void run() {
-            getCallback().onCurrentPositionChanged(ExoPlayerAdapter.this);
-            getCallback().onBufferedPositionChanged(ExoPlayerAdapter.this);
-            mHandler.postDelayed(this, getUpdatePeriod());
-        }
-    };
-    final Handler mHandler = new Handler();
+    PlaybackGlueHost mHost;
+    final ProgressUpdateScheduler mProgressScheduler = new ProgressUpdateScheduler(
+            new ProgressUpdateScheduler.Client() {
+                @Override
+                public void onUpdateProgress() {
+                    getCallback().onCurrentPositionChanged(ExoPlayerAdapter.this);
+                    getCallback().onBufferedPositionChanged(ExoPlayerAdapter.this);
+                }
+
+                @Override
+                public boolean isPlaying() {
+                    return ExoPlayerAdapter.this.isPlaying();
+                }
+
+                @Override
+                public PlaybackGlueHost getHost() {
+                    return mHost;
+                }
+            });
     boolean mInitialized = false;
     Uri mMediaSourceUri = null;
     boolean mHasDisplay;
@@ -62,6 +72,7 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
 
     @Override
     public void onAttachedToHost(PlaybackGlueHost host) {
+        mHost = host;
         if (host instanceof SurfaceHolderGlueHost) {
             mSurfaceHolderGlueHost = ((SurfaceHolderGlueHost) host);
             mSurfaceHolderGlueHost.setSurfaceHolderCallback(new VideoPlayerSurfaceHolderCallback());
@@ -108,6 +119,7 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
 
     @Override
     public void onDetachedFromHost() {
+        mHost = null;
         if (mSurfaceHolderGlueHost != null) {
             mSurfaceHolderGlueHost.setSurfaceHolderCallback(null);
             mSurfaceHolderGlueHost = null;
@@ -140,15 +152,20 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
 
     @Override
     public void setProgressUpdatingEnabled(final boolean enabled) {
-        mHandler.removeCallbacks(mRunnable);
-        if (!enabled) {
-            return;
-        }
-        mHandler.postDelayed(mRunnable, getUpdatePeriod());
+        mProgressScheduler.setEnabled(enabled);
+    }
+
+    /**
+     * Switches the progress updates to frame rate right away, to be called on key events. They
+     * stay at frame rate while the controls overlay is visible, see
+     * {@link ProgressUpdateScheduler}.
+     */
+    public void onUserInteraction() {
+        mProgressScheduler.onUserInteraction();
     }
 
     int getUpdatePeriod() {
-        return 16;
+        return mProgressScheduler.getUpdatePeriod();
     }
 
     @Override
@@ -231,14 +248,20 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
 
     /**
      * Set {@link MediaSource} for {@link SimpleExoPlayer}. An app may override this method in order
-     * to use different {@link MediaSource}.
+     * to use different {@link MediaSource}. Streamed media goes through the shared
+     * {@link ExoPlayerCache}, so previously played parts are read from disk.
      * @param uri The url of media source
      * @return MediaSource for the player
      */
     public MediaSource onCreateMediaSource(Uri uri) {
         String userAgent = Util.getUserAgent(mContext, "ExoPlayerAdapter");
+        DataSource.Factory dataSourceFactory = new DefaultDataSourceFactory(mContext, userAgent);
+        if (ExoPlayerCache.isCacheable(uri)) {
+            dataSourceFactory = ExoPlayerCache.getInstance(mContext)
+                    .createDataSourceFactory(dataSourceFactory);
+        }
         return new ExtractorMediaSource(uri,
-                new DefaultDataSourceFactory(mContext, userAgent),
+                dataSourceFactory,
                 new DefaultExtractorsFactory(),
                 null,
                 null);
@@ -302,6 +325,8 @@ public class ExoPlayerAdapter extends PlayerAdapter implements ExoPlayer.EventLi
 
     @Override
     public void onPlayerStateChanged(boolean playWhenReady, int playbackState) {
+        // covers play(), pause(), buffering and the end of the media
+        mProgressScheduler.onPlayStateChanged();
         mBufferingStart = false;
         if (playbackState == ExoPlayer.STATE_READY && !mInitialized) {
             mInitialized = true;
@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.content.Context;
+import android.net.Uri;
+import android.util.Log;
+
+import com.google.android.exoplayer2.upstream.DataSource;
+import com.google.android.exoplayer2.upstream.FileDataSource;
+import com.google.android.exoplayer2.upstream.cache.Cache;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSink;
+import com.google.android.exoplayer2.upstream.cache.CacheDataSource;
+import com.google.android.exoplayer2.upstream.cache.LeastRecentlyUsedCacheEvictor;
+import com.google.android.exoplayer2.upstream.cache.SimpleCache;
+
+import java.io.File;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Process wide disk cache of the media streamed by {@link ExoPlayerAdapter}, so a video which is
+ * played again, e.g. the trailer on every detail page, is read from disk instead of downloaded
+ * again.
+ *
+ * Data sources created by {@link #createDataSourceFactory(DataSource.Factory)} read the cached
+ * parts of a stream first and only fetch the missing ones from the network, writing them to the
+ * cache as they are played. The cache holds at most {@link #MAX_SIZE} bytes; the least recently
+ * used parts are evicted first. Only a single SimpleCache may use the directory, hence the
+ * singleton.
+ */
+public class ExoPlayerCache {
+
+    private static final String TAG = "ExoPlayerCache";
+
+    static final long MAX_SIZE = 200 * 1024 * 1024;
+    // size of the files the cached streams are split into
+    private static final long MAX_FILE_SIZE = 2 * 1024 * 1024;
+    private static final String DIRECTORY = "exoplayer";
+
+    private static ExoPlayerCache sInstance;
+
+    private final Cache mCache;
+    private final AtomicLong mCachedBytesRead = new AtomicLong();
+
+    private final CacheDataSource.EventListener mEventListener =
+            new CacheDataSource.EventListener() {
+                @Override
+                public void onCachedBytesRead(long cacheSizeBytes, long cachedBytesRead) {
+                    long total = mCachedBytesRead.addAndGet(cachedBytesRead);
+                    Log.d(TAG, "Read " + cachedBytesRead + " bytes from the cache, " + total
+                            + " in total, cache size " + cacheSizeBytes);
+                }
+            };
+
+    public static synchronized ExoPlayerCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new ExoPlayerCache(
+                    new File(context.getApplicationContext().getCacheDir(), DIRECTORY));
+        }
+        return sInstance;
+    }
+
+    private ExoPlayerCache(File directory) {
+        mCache = new SimpleCache(directory, new LeastRecentlyUsedCacheEvictor(MAX_SIZE));
+    }
+
+    /**
+     * @return Whether the media at the URI is worth caching, i.e. isn't on the device already.
+     */
+    public static boolean isCacheable(Uri uri) {
+        String scheme = uri.getScheme();
+        return "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+    }
+
+    /**
+     * @param upstreamFactory Creates the data sources the missing parts are fetched from.
+     * @return A factory of data sources which read from the cache first.
+     */
+    public DataSource.Factory createDataSourceFactory(final DataSource.Factory upstreamFactory) {
+        return new DataSource.Factory() {
+            @Override
+            public DataSource createDataSource() {
+                return new CacheDataSource(mCache, upstreamFactory.createDataSource(),
+                        new FileDataSource(), new CacheDataSink(mCache, MAX_FILE_SIZE),
+                        CacheDataSource.FLAG_IGNORE_CACHE_ON_ERROR, mEventListener);
+            }
+        };
+    }
+
+    /**
+     * @return The number of bytes played from the cache instead of the network since the app
+     * started.
+     */
+    public long getCachedBytesRead() {
+        return mCachedBytesRead.get();
+    }
+
+    /**
+     * @return The number of bytes currently cached.
+     */
+    public long getCacheSize() {
+        return mCache.getCacheSpace();
+    }
+}
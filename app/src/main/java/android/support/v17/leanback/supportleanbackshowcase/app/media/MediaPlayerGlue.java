@@ -17,9 +17,8 @@ package android.support.v17.leanback.supportleanbackshowcase.app.media;
 
 import android.content.Context;
 import android.graphics.drawable.Drawable;
-import android.os.Handler;
-import android.os.Message;
 import android.support.v17.leanback.media.PlaybackControlGlue;
+import android.support.v17.leanback.media.PlaybackGlueHost;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.widget.Action;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
@@ -46,17 +45,23 @@ import android.view.View;
 public abstract class MediaPlayerGlue extends PlaybackControlGlue {
 
     private static final String TAG = "MusicMediaPlayerGlue";
-    private static final int REFRESH_PROGRESS = 1;
-    private final Handler mHandler = new Handler() {
-        @Override
-        public void handleMessage(Message msg) {
-            switch (msg.what) {
-                case REFRESH_PROGRESS:
+    private final ProgressUpdateScheduler mProgressScheduler = new ProgressUpdateScheduler(
+            new ProgressUpdateScheduler.Client() {
+                @Override
+                public void onUpdateProgress() {
                     updateProgress();
-                    queueNextRefresh();
-            }
-        }
-    };
+                }
+
+                @Override
+                public boolean isPlaying() {
+                    return isMediaPlaying();
+                }
+
+                @Override
+                public PlaybackGlueHost getHost() {
+                    return MediaPlayerGlue.this.getHost();
+                }
+            });
 
     protected PlaybackControlsRow.MultiAction mShuffleAction;
     protected PlaybackControlsRow.MultiAction mRepeatAction;
@@ -98,22 +103,28 @@ public abstract class MediaPlayerGlue extends PlaybackControlGlue {
 
     @Override public void enableProgressUpdating(final boolean enabled) {
         Log.d(TAG, "enableProgressUpdating: " + enabled);
-        if (!enabled) {
-            mHandler.removeMessages(REFRESH_PROGRESS);
-            return;
-        }
-        queueNextRefresh();
+        mProgressScheduler.setEnabled(enabled);
     }
 
+    /**
+     * Frame rate while the controls are visible, once a second otherwise, see
+     * {@link ProgressUpdateScheduler}.
+     */
     @Override
     public int getUpdatePeriod() {
-        return 16;
+        return mProgressScheduler.getUpdatePeriod();
     }
 
-    private void queueNextRefresh() {
-        Message refreshMsg = mHandler.obtainMessage(REFRESH_PROGRESS);
-        mHandler.removeMessages(REFRESH_PROGRESS);
-        mHandler.sendMessageDelayed(refreshMsg, getUpdatePeriod());
+    @Override
+    public void onStateChanged() {
+        super.onStateChanged();
+        mProgressScheduler.onPlayStateChanged();
+    }
+
+    @Override
+    public boolean onKey(View v, int keyCode, KeyEvent event) {
+        mProgressScheduler.onUserInteraction();
+        return super.onKey(v, keyCode, event);
     }
 
     @Override public void onActionClicked(Action action) {
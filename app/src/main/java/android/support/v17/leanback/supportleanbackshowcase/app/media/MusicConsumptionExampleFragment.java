@@ -23,6 +23,7 @@ import android.support.v17.leanback.app.PlaybackFragment;
 import android.support.v17.leanback.app.PlaybackFragmentGlueHost;
 import android.support.v17.leanback.supportleanbackshowcase.utils.Constants;
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.support.v17.leanback.supportleanbackshowcase.models.Song;
 import android.support.v17.leanback.supportleanbackshowcase.models.SongList;
@@ -31,8 +32,6 @@ import android.support.v17.leanback.widget.AbstractMediaItemPresenter;
 import android.util.Log;
 import android.widget.TextView;
 
-import com.google.gson.Gson;
-
 import java.util.ArrayList;
 import java.util.List;
 
@@ -56,12 +55,24 @@ public class MusicConsumptionExampleFragment extends PlaybackFragment implements
         mGlue = new MusicMediaPlayerGlue(getActivity());
         mGlue.setHost(new PlaybackFragmentGlueHost(this));
 
-        String json = Utils.inputStreamToString(
-                getResources().openRawResource(R.raw.music_consumption_example));
-
-
-        List<Song> songList = new Gson().fromJson(json, SongList.class).getSongs();
+        RawModelCache.getInstance(getActivity()).load(R.raw.music_consumption_example,
+                SongList.class, new RawModelCache.Callback<SongList>() {
+                    @Override
+                    public void onModelReady(SongList model) {
+                        if (!isAdded()) return;
+
+                        // The songs are shared, so work on copies which can hold this screen's
+                        // favorite state and actions.
+                        List<Song> songList = new ArrayList<>(model.getSongs().size());
+                        for (Song song : model.getSongs()) {
+                            songList.add(new Song(song));
+                        }
+                        setupSongs(songList);
+                    }
+                });
+    }
 
+    private void setupSongs(List<Song> songList) {
         Resources res = getActivity().getResources();
 
         // For each song add a playlist and favorite actions.
@@ -272,7 +283,7 @@ public class MusicConsumptionExampleFragment extends PlaybackFragment implements
     }
 
     private Uri getUri(Song song) {
-        return Utils.getResourceUri(getActivity(), song.getFileResource(getActivity()));
+        return Utils.getResourceUri(getActivity(), song.getFileResource());
     }
 
     private MediaMetaData createMetaDataFromSong(Song song) {
@@ -281,7 +292,7 @@ public class MusicConsumptionExampleFragment extends PlaybackFragment implements
         mediaMetaData.setMediaArtistName(song.getDescription());
         Uri uri = getUri(song);
         mediaMetaData.setMediaSourceUri(uri);
-        mediaMetaData.setMediaAlbumArtResId(song.getImageResource(getActivity()));
+        mediaMetaData.setMediaAlbumArtResId(song.getImageResource());
         return mediaMetaData;
     }
 }
@@ -17,7 +17,12 @@
 package android.support.v17.leanback.supportleanbackshowcase.app.media;
 
 import android.graphics.Bitmap;
-import android.os.AsyncTask;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.Paint;
+import android.graphics.Rect;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
 import android.support.v17.leanback.widget.PlaybackSeekDataProvider;
 import android.support.v4.util.LruCache;
 import android.util.Log;
@@ -28,53 +33,105 @@ import java.util.Map;
 
 /**
  *
- * Base class that implements PlaybackSeekDataProvider using AsyncTask.THREAD_POOL_EXECUTOR with
- * prefetching.
+ * Base class that implements PlaybackSeekDataProvider using {@link ThumbnailLoader} with
+ * prefetching. The thumbnail requested last is always loaded first, and prefetches which fall
+ * behind the scrub window are dropped before they start. Which positions are prefetched is decided
+ * by a {@link PrefetchPolicy}, {@link VelocityPrefetchPolicy} by default.
+ *
+ * Both caches are bounded in bytes, so the memory used doesn't depend on the resolution of the
+ * thumbnails. Prefetched thumbnails dropped before they were ever requested go to a
+ * {@link BitmapPool} and back the next decodes, see {@link #decodeFile(String)} and
+ * {@link #obtainBitmap(int, int)}. Thumbnails which have been handed to the seek UI may still be
+ * on screen and are never reused, they are left to the garbage collector once evicted.
  */
 public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProvider {
 
     static final String TAG = "SeekAsyncProvider";
 
+    static final int DEFAULT_CACHE_SIZE = 4 * 1024 * 1024;
+    static final int DEFAULT_PREFETCH_CACHE_SIZE = 6 * 1024 * 1024;
+    static final int DEFAULT_POOL_SIZE = 2 * 1024 * 1024;
+    // assumed number of prefetched thumbnails fitting in the prefetch cache until the first one
+    // has been loaded
+    private static final int DEFAULT_PREFETCH_COUNT = 24;
+    private static final Paint SCALE_PAINT = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * Decides how far apart the prefetched thumbnails are, based on how the user scrubs.
+     */
+    public interface PrefetchPolicy {
+        /**
+         * Called from {@link #getThumbnail(int, ResultCallback)} whenever the user moves to a new
+         * position.
+         */
+        void onThumbnailRequested(int index, long uptimeMillis);
+
+        /**
+         * @return The distance between two prefetched positions, at least 1.
+         */
+        int getStride();
+
+        /**
+         * Forgets the scrubbing so far, called from {@link #reset()}.
+         */
+        void reset();
+    }
+
     long[] mSeekPositions;
-    // mCache is for the bitmap requested by user
+    // mCache is for the bitmap requested by user, its bitmaps may be shown by the seek UI and are
+    // never recycled
     final LruCache<Integer, Bitmap> mCache;
     // mPrefetchCache is for the bitmap not requested by user but prefetched by heuristic
     // estimation. We use a different LruCache so that items in mCache will not be evicted by
     // prefeteched items.
     final LruCache<Integer, Bitmap> mPrefetchCache;
+    final BitmapPool mBitmapPool;
     final SparseArray<LoadBitmapTask> mRequests = new SparseArray<>();
     int mLastRequestedIndex = -1;
+    final ThumbnailLoader mLoader = ThumbnailLoader.getInstance();
+    PrefetchPolicy mPrefetchPolicy = new VelocityPrefetchPolicy();
+    // prefetched thumbnails which were requested later, and which were dropped unused
+    int mPrefetchHits;
+    int mPrefetchWaste;
+    // size of the last loaded thumbnail, to estimate how many thumbnails fit in the caches
+    int mThumbnailBytes;
 
     protected boolean isCancelled(Object task) {
-        return ((AsyncTask) task).isCancelled();
+        return ((ThumbnailLoader.Task) task).isCancelled();
     }
 
     protected abstract Bitmap doInBackground(Object task, int index, long position);
 
-    class LoadBitmapTask extends AsyncTask<Object, Object, Bitmap> {
+    class LoadBitmapTask extends ThumbnailLoader.Task {
 
         int mIndex;
         ResultCallback mResultCallback;
 
         LoadBitmapTask(int index, ResultCallback callback) {
+            super(callback == null);
             mIndex = index;
             mResultCallback = callback;
         }
 
         @Override
-        protected Bitmap doInBackground(Object[] params) {
+        protected Bitmap load() {
             return PlaybackSeekAsyncDataProvider.this
                     .doInBackground(this, mIndex, mSeekPositions[mIndex]);
         }
 
         @Override
-        protected void onPostExecute(Bitmap bitmap) {
+        protected void onLoaded(Bitmap bitmap) {
             mRequests.remove(mIndex);
             Log.d(TAG, "thumb Loaded " + mIndex);
+            if (bitmap != null) {
+                mThumbnailBytes = bitmap.getAllocationByteCount();
+            }
             if (mResultCallback != null) {
-                mCache.put(mIndex, bitmap);
+                if (bitmap != null) {
+                    mCache.put(mIndex, bitmap);
+                }
                 mResultCallback.onThumbnailLoaded(bitmap, mIndex);
-            } else {
+            } else if (bitmap != null) {
                 mPrefetchCache.put(mIndex, bitmap);
             }
         }
@@ -82,18 +139,176 @@ public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProv
     }
 
     public PlaybackSeekAsyncDataProvider() {
-        this(16, 24);
+        this(DEFAULT_CACHE_SIZE, DEFAULT_PREFETCH_CACHE_SIZE, DEFAULT_POOL_SIZE);
+    }
+
+    /**
+     * @param cacheSize The size in bytes of the cache of requested thumbnails.
+     * @param prefetchCacheSize The size in bytes of the cache of prefetched thumbnails.
+     * @param poolSize The size in bytes of the bitmaps kept for reuse.
+     */
+    public PlaybackSeekAsyncDataProvider(int cacheSize, int prefetchCacheSize, int poolSize) {
+        mBitmapPool = new BitmapPool(poolSize);
+        mCache = new LruCache<Integer, Bitmap>(cacheSize) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+        };
+        mPrefetchCache = new LruCache<Integer, Bitmap>(prefetchCacheSize) {
+            @Override
+            protected int sizeOf(Integer key, Bitmap value) {
+                return value.getAllocationByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Integer key, Bitmap oldValue,
+                    Bitmap newValue) {
+                if (evicted) {
+                    mPrefetchWaste++;
+                    onPrefetchDropped(oldValue);
+                }
+            }
+        };
+    }
+
+    /**
+     * Called when a prefetched thumbnail has been dropped without ever being handed to the seek
+     * UI, so nothing can still draw it. Thumbnails moved to the cache of requested thumbnails are
+     * not reported. The default implementation adds the bitmap to the reuse pool.
+     */
+    protected void onPrefetchDropped(Bitmap bitmap) {
+        mBitmapPool.put(bitmap);
+    }
+
+    /**
+     * @return A mutable bitmap of the given size, reusing the memory of a dropped prefetch when
+     * possible. Its content is undefined.
+     */
+    protected Bitmap obtainBitmap(int width, int height) {
+        Bitmap bitmap = mBitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+        return bitmap != null ? bitmap
+                : Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+    }
+
+    /**
+     * @return Options to decode an image of the given size into the memory of a dropped prefetch,
+     * if the pool has one large enough. Pass them to {@link #releaseDecodeOptions} once decoded.
+     */
+    protected BitmapFactory.Options obtainDecodeOptions(int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inBitmap = mBitmapPool.get(width, height, Bitmap.Config.ARGB_8888);
+        return options;
     }
 
-    public PlaybackSeekAsyncDataProvider(int cacheSize, int prefetchCacheSize) {
-        mCache = new LruCache<Integer, Bitmap>(cacheSize);
-        mPrefetchCache = new LruCache<Integer, Bitmap>(prefetchCacheSize);
+    /**
+     * Puts the bitmap of options from {@link #obtainDecodeOptions(int, int)} back into the pool,
+     * unless the decode returned it. Must be called on every path, including misses and failed
+     * decodes, or the pool is drained.
+     */
+    protected void releaseDecodeOptions(BitmapFactory.Options options, @Nullable Bitmap decoded) {
+        if (options.inBitmap != null && options.inBitmap != decoded) {
+            mBitmapPool.put(options.inBitmap);
+        }
+        options.inBitmap = null;
+    }
+
+    /**
+     * Decodes an image file, reusing the memory of a dropped prefetch when possible.
+     *
+     * @return The bitmap, or <code>null</code> if the file cannot be decoded.
+     */
+    protected Bitmap decodeFile(String path) {
+        return decodeFile(path, Integer.MAX_VALUE, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Decodes an image file downscaled to fit the given size, keeping its aspect ratio. The image
+     * is subsampled while decoding and then scaled to the exact size; both steps reuse the memory
+     * of dropped prefetches when possible.
+     *
+     * @return The bitmap, or <code>null</code> if the file cannot be decoded.
+     */
+    protected Bitmap decodeFile(String path, int maxWidth, int maxHeight) {
+        BitmapFactory.Options bounds = new BitmapFactory.Options();
+        bounds.inJustDecodeBounds = true;
+        BitmapFactory.decodeFile(path, bounds);
+        if (bounds.outWidth <= 0 || bounds.outHeight <= 0) {
+            return null;
+        }
+        int sampleSize = 1;
+        while (bounds.outWidth / (sampleSize * 2) >= maxWidth
+                && bounds.outHeight / (sampleSize * 2) >= maxHeight) {
+            sampleSize *= 2;
+        }
+        // rounded up, the decoder shrinks the reused bitmap to the exact size
+        BitmapFactory.Options options = obtainDecodeOptions(
+                (bounds.outWidth + sampleSize - 1) / sampleSize,
+                (bounds.outHeight + sampleSize - 1) / sampleSize);
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(path, options);
+        } catch (IllegalArgumentException e) {
+            // the reused bitmap doesn't fit the image after all, it goes back to the pool below
+            Bitmap reusable = options.inBitmap;
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(path, options);
+            options.inBitmap = reusable;
+        }
+        releaseDecodeOptions(options, bitmap);
+        if (bitmap == null
+                || (bitmap.getWidth() <= maxWidth && bitmap.getHeight() <= maxHeight)) {
+            return bitmap;
+        }
+        float scale = Math.min((float) maxWidth / bitmap.getWidth(),
+                (float) maxHeight / bitmap.getHeight());
+        Bitmap scaled = obtainBitmap(Math.max(1, Math.round(bitmap.getWidth() * scale)),
+                Math.max(1, Math.round(bitmap.getHeight() * scale)));
+        new Canvas(scaled).drawBitmap(bitmap, null,
+                new Rect(0, 0, scaled.getWidth(), scaled.getHeight()), SCALE_PAINT);
+        mBitmapPool.put(bitmap);
+        return scaled;
+    }
+
+    /**
+     * @return The number of prefetched thumbnails which fit in the prefetch cache.
+     */
+    int getPrefetchCapacity() {
+        return mThumbnailBytes > 0
+                ? Math.max(1, mPrefetchCache.maxSize() / mThumbnailBytes)
+                : DEFAULT_PREFETCH_COUNT;
     }
 
     public void setSeekPositions(long[] positions) {
         mSeekPositions = positions;
     }
 
+    public void setPrefetchPolicy(PrefetchPolicy policy) {
+        mPrefetchPolicy = policy;
+    }
+
+    public PrefetchPolicy getPrefetchPolicy() {
+        return mPrefetchPolicy;
+    }
+
+    /**
+     * @return How many requested thumbnails were served from the prefetched ones since the last
+     * {@link #reset()}.
+     */
+    public int getPrefetchHitCount() {
+        return mPrefetchHits;
+    }
+
+    /**
+     * @return How many prefetched thumbnails were dropped without ever being requested since the
+     * last {@link #reset()}.
+     */
+    public int getPrefetchWasteCount() {
+        return mPrefetchWaste;
+    }
+
     @Override
     public long[] getSeekPositions() {
         return mSeekPositions;
@@ -108,6 +323,7 @@ public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProv
         } else {
             bitmap = mPrefetchCache.get(key);
             if (bitmap != null) {
+                mPrefetchHits++;
                 mCache.put(key, bitmap);
                 mPrefetchCache.remove(key);
                 callback.onThumbnailLoaded(bitmap, index);
@@ -117,32 +333,58 @@ public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProv
                     // no normal task or prefetch for the position, create a new task
                     task = new LoadBitmapTask(index, callback);
                     mRequests.put(index, task);
-                    task.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                    mLoader.execute(task);
                 } else {
-                    // update existing ResultCallback which might be normal task or prefetch
+                    // update existing ResultCallback which might be normal task or prefetch, and
+                    // move it ahead of the older requests
                     task.mResultCallback = callback;
+                    mLoader.promote(task);
                 }
             }
         }
         if (mLastRequestedIndex != index) {
+            mPrefetchPolicy.onThumbnailRequested(index, SystemClock.uptimeMillis());
             if (mLastRequestedIndex != -1) {
-                prefetch(mLastRequestedIndex, index > mLastRequestedIndex);
+                prefetch(index, index > mLastRequestedIndex);
             }
             mLastRequestedIndex = index;
         }
     }
 
+    /**
+     * Drops the prefetched thumbnails behind the hint and prefetches the ones ahead of it, one
+     * every {@link PrefetchPolicy#getStride()} positions.
+     *
+     * @param hintIndex The position the user is at.
+     * @param forward Whether the user scrubs towards the end.
+     */
     protected void prefetch(int hintIndex, boolean forward) {
         for (Iterator<Map.Entry<Integer, Bitmap>> it =
                 mPrefetchCache.snapshot().entrySet().iterator(); it.hasNext(); ) {
             Map.Entry<Integer, Bitmap> entry = it.next();
             if (forward ? entry.getKey() < hintIndex : entry.getKey() > hintIndex) {
                 mPrefetchCache.remove(entry.getKey());
+                mPrefetchWaste++;
+                onPrefetchDropped(entry.getValue());
             }
         }
-        int inc = forward ? 1 : -1;
-        for (int i = hintIndex; (mRequests.size() + mPrefetchCache.size()
-                < mPrefetchCache.maxSize()) && (inc > 0 ? i < mSeekPositions.length : i >= 0);
+        int inc = (forward ? 1 : -1) * Math.max(1, mPrefetchPolicy.getStride());
+        // drop the prefetches which are behind the hint or too far ahead of it to be kept
+        int capacity = getPrefetchCapacity();
+        int windowEnd = hintIndex + inc * capacity;
+        for (int i = mRequests.size() - 1; i >= 0; i--) {
+            LoadBitmapTask task = mRequests.valueAt(i);
+            int index = mRequests.keyAt(i);
+            if (task.mResultCallback == null && (forward
+                    ? index < hintIndex || index >= windowEnd
+                    : index > hintIndex || index <= windowEnd)) {
+                mLoader.cancel(task);
+                mRequests.removeAt(i);
+            }
+        }
+        int prefetched = mThumbnailBytes > 0 ? mPrefetchCache.size() / mThumbnailBytes : 0;
+        for (int i = hintIndex + inc; (mRequests.size() + prefetched < capacity)
+                && (inc > 0 ? i < mSeekPositions.length : i >= 0);
                 i += inc) {
             Integer key = i;
             if (mCache.get(key) == null && mPrefetchCache.get(key) == null) {
@@ -150,7 +392,7 @@ public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProv
                 if (task == null) {
                     task = new LoadBitmapTask(key, null);
                     mRequests.put(i, task);
-                    task.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+                    mLoader.execute(task);
                 }
             }
         }
@@ -159,13 +401,15 @@ public abstract class PlaybackSeekAsyncDataProvider extends PlaybackSeekDataProv
     @Override
     public void reset() {
         for (int i = 0; i < mRequests.size(); i++) {
-            LoadBitmapTask task = mRequests.valueAt(i);
-            task.cancel(true);
+            mLoader.cancel(mRequests.valueAt(i));
         }
         mRequests.clear();
         mCache.evictAll();
         mPrefetchCache.evictAll();
         mLastRequestedIndex = -1;
+        mPrefetchPolicy.reset();
+        mPrefetchHits = 0;
+        mPrefetchWaste = 0;
     }
 
     @Override
@@ -21,6 +21,8 @@ import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.net.Uri;
+import android.support.annotation.Nullable;
 
 import android.support.v17.leanback.media.PlaybackGlue;
 import android.support.v17.leanback.media.PlaybackTransportControlGlue;
@@ -32,13 +34,32 @@ import java.io.File;
  * e.g. new PlaybackSeekDiskDataProvider(duration, 1000, "/sdcard/frame_%04d.jpg")
  * Expects the seek positions are 1000ms interval, snapshots are stored at
  * /sdcard/frame_0001.jpg, ...
+ *
+ * Frames are downscaled to fit {@link #THUMBNAIL_WIDTH} x {@link #THUMBNAIL_HEIGHT}. When a
+ * {@link ThumbnailDiskCache} is given, the downscaled thumbnails are stored in it keyed by the
+ * media URI, and are read from there the next time the same title is played.
  */
 public class PlaybackSeekDiskDataProvider extends PlaybackSeekAsyncDataProvider {
 
+    private static final String DEMO_STORYBOARD = "/sdcard/seek/storyboard.json";
+
+    static final int THUMBNAIL_WIDTH = 320;
+    static final int THUMBNAIL_HEIGHT = 180;
+
     final Paint mPaint;
     final String mPathPattern;
+    final ThumbnailDiskCache mDiskCache;
+    final String mMediaUri;
+
     PlaybackSeekDiskDataProvider(long duration, long interval, String pathPattern) {
+        this(duration, interval, pathPattern, null, null);
+    }
+
+    PlaybackSeekDiskDataProvider(long duration, long interval, String pathPattern,
+            ThumbnailDiskCache diskCache, String mediaUri) {
         mPathPattern = pathPattern;
+        mDiskCache = mediaUri != null ? diskCache : null;
+        mMediaUri = mediaUri;
         int size = (int) (duration / interval) + 1;
         long[] pos = new long[size];
         for (int i = 0; i < pos.length; i++) {
@@ -51,6 +72,15 @@ public class PlaybackSeekDiskDataProvider extends PlaybackSeekAsyncDataProvider
     }
 
     protected Bitmap doInBackground(Object task, int index, long position) {
+        if (mDiskCache != null) {
+            BitmapFactory.Options options = obtainDecodeOptions(THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            Bitmap cached = mDiskCache.get(mMediaUri, index, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT,
+                    options);
+            releaseDecodeOptions(options, cached);
+            if (cached != null) {
+                return cached;
+            }
+        }
         try {
             Thread.sleep(100);
         } catch (InterruptedException ex) {
@@ -61,9 +91,13 @@ public class PlaybackSeekDiskDataProvider extends PlaybackSeekAsyncDataProvider
         }
         String path = String.format(mPathPattern, (index + 1));
         if (new File(path).exists()) {
-            return BitmapFactory.decodeFile(path);
+            Bitmap bitmap = decodeFile(path, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT);
+            if (bitmap != null && mDiskCache != null) {
+                mDiskCache.put(mMediaUri, index, THUMBNAIL_WIDTH, THUMBNAIL_HEIGHT, bitmap);
+            }
+            return bitmap;
         } else {
-            Bitmap bmp = Bitmap.createBitmap(160, 160, Bitmap.Config.ARGB_8888);
+            Bitmap bmp = obtainBitmap(160, 160);
             Canvas canvas = new Canvas(bmp);
             canvas.drawColor(Color.YELLOW);
             canvas.drawText(path, 10, 80, mPaint);
@@ -74,14 +108,30 @@ public class PlaybackSeekDiskDataProvider extends PlaybackSeekAsyncDataProvider
 
     /**
      * Helper function to set a demo seek provider on PlaybackTransportControlGlue based on
-     * duration.
+     * duration. A storyboard at /sdcard/seek/storyboard.json is preferred over the frame files,
+     * see {@link PlaybackSeekStoryboardDataProvider}.
+     */
+    public static void setDemoSeekProvider(PlaybackTransportControlGlue glue) {
+        setDemoSeekProvider(glue, null);
+    }
+
+    /**
+     * Same as {@link #setDemoSeekProvider(PlaybackTransportControlGlue)}, with the downscaled
+     * frames kept in the {@link ThumbnailDiskCache} under the given media URI.
      */
-    public static void setDemoSeekProvider(final PlaybackTransportControlGlue glue) {
+    public static void setDemoSeekProvider(final PlaybackTransportControlGlue glue,
+            @Nullable Uri mediaUri) {
+        if (new File(DEMO_STORYBOARD).exists()) {
+            PlaybackSeekStoryboardDataProvider.setSeekProvider(glue, DEMO_STORYBOARD);
+            return;
+        }
+        final ThumbnailDiskCache diskCache = ThumbnailDiskCache.getInstance(glue.getContext());
+        final String uri = mediaUri != null ? mediaUri.toString() : null;
         if (glue.isPrepared()) {
             glue.setSeekProvider(new PlaybackSeekDiskDataProvider(
                     glue.getDuration(),
                     glue.getDuration() / 100,
-                    "/sdcard/seek/frame_%04d.jpg"));
+                    "/sdcard/seek/frame_%04d.jpg", diskCache, uri));
         } else {
             glue.addPlayerCallback(new PlaybackGlue.PlayerCallback() {
                 @Override
@@ -93,7 +143,7 @@ public class PlaybackSeekDiskDataProvider extends PlaybackSeekAsyncDataProvider
                         transportControlGlue.setSeekProvider(new PlaybackSeekDiskDataProvider(
                                 transportControlGlue.getDuration(),
                                 transportControlGlue.getDuration() / 100,
-                                "/sdcard/seek/frame_%04d.jpg"));
+                                "/sdcard/seek/frame_%04d.jpg", diskCache, uri));
                     }
                 }
             });
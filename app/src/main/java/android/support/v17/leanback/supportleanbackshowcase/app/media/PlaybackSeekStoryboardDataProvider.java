@@ -0,0 +1,330 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapRegionDecoder;
+import android.graphics.Rect;
+import android.os.AsyncTask;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v17.leanback.media.PlaybackGlue;
+import android.support.v17.leanback.media.PlaybackTransportControlGlue;
+import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.google.gson.JsonParseException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * PlaybackSeekDataProvider which cuts the thumbnails out of a storyboard, see {@link Storyboard}.
+ * The storyboard is described by a small JSON index, e.g.
+ *
+ * <pre>
+ * {
+ *   "interval": 10000, "count": 240,
+ *   "tileWidth": 160, "tileHeight": 90, "columns": 10, "rows": 10,
+ *   "sheets": ["storyboard_0.jpg", "storyboard_1.jpg", "storyboard_2.jpg"]
+ * }
+ * </pre>
+ *
+ * The index and the sheets may be local files or http(s) URLs; sheets are resolved against the
+ * location of the index. Every sheet is read once and kept open in a BitmapRegionDecoder, and each
+ * thumbnail is region decoded from it, preferably into the memory of a dropped prefetch. So
+ * scrubbing doesn't open or decode a file per thumbnail. Sheets are opened and decoded under a
+ * lock of their own, so a sheet being downloaded never holds up thumbnails of the other sheets.
+ */
+public class PlaybackSeekStoryboardDataProvider extends PlaybackSeekAsyncDataProvider {
+
+    private static final int MAX_OPEN_SHEETS = 3;
+    private static final int CONNECT_TIMEOUT_MS = 10000;
+    private static final int READ_TIMEOUT_MS = 10000;
+
+    private final Storyboard mStoryboard;
+    private final String mBaseUri;
+
+    // guarded by itself, like the sheets it evicted which still have to be closed
+    private final LruCache<Integer, Sheet> mSheets = new LruCache<Integer, Sheet>(MAX_OPEN_SHEETS) {
+        @Override
+        protected void entryRemoved(boolean evicted, Integer key, Sheet oldValue,
+                Sheet newValue) {
+            // closed once the lock is released, the sheet may still be opened or decoded from
+            mEvicted.add(oldValue);
+        }
+    };
+    private final List<Sheet> mEvicted = new ArrayList<>();
+
+    /**
+     * @param storyboard The parsed index, see {@link #loadIndex(String)}.
+     * @param indexUri The location of the index, sheets are resolved against it.
+     */
+    public PlaybackSeekStoryboardDataProvider(Storyboard storyboard, String indexUri) {
+        mStoryboard = storyboard;
+        mBaseUri = indexUri.substring(0, indexUri.lastIndexOf('/') + 1);
+        long[] positions = new long[storyboard.mCount];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i * storyboard.mInterval;
+        }
+        setSeekPositions(positions);
+    }
+
+    /**
+     * Reads the index of a storyboard from a local file or an http(s) URL.
+     *
+     * @return The index, or <code>null</code> if it cannot be read or is incomplete.
+     */
+    @WorkerThread
+    @Nullable
+    public static Storyboard loadIndex(String indexUri) {
+        try {
+            Storyboard storyboard = Utils.fromJson(Utils.getGson(), open(indexUri),
+                    Storyboard.class);
+            return storyboard != null && storyboard.isValid() ? storyboard : null;
+        } catch (IOException | JsonParseException e) {
+            Log.e(TAG, "Cannot read storyboard " + indexUri, e);
+            return null;
+        }
+    }
+
+    /**
+     * Loads the storyboard index in the background and sets the provider on the glue once both
+     * the index and the glue are ready. Nothing is set if the index cannot be read.
+     */
+    public static void setSeekProvider(final PlaybackTransportControlGlue glue,
+            final String indexUri) {
+        new AsyncTask<Void, Void, Storyboard>() {
+            @Override
+            protected Storyboard doInBackground(Void... voids) {
+                return loadIndex(indexUri);
+            }
+
+            @Override
+            protected void onPostExecute(final Storyboard storyboard) {
+                if (storyboard == null) {
+                    return;
+                }
+                if (glue.isPrepared()) {
+                    glue.setSeekProvider(
+                            new PlaybackSeekStoryboardDataProvider(storyboard, indexUri));
+                    return;
+                }
+                glue.addPlayerCallback(new PlaybackGlue.PlayerCallback() {
+                    @Override
+                    public void onPreparedStateChanged(PlaybackGlue playbackGlue) {
+                        if (playbackGlue.isPrepared()) {
+                            playbackGlue.removePlayerCallback(this);
+                            glue.setSeekProvider(
+                                    new PlaybackSeekStoryboardDataProvider(storyboard, indexUri));
+                        }
+                    }
+                });
+            }
+        }.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    @Override
+    protected Bitmap doInBackground(Object task, int index, long position) {
+        int tilesPerSheet = mStoryboard.getTilesPerSheet();
+        int sheetIndex = index / tilesPerSheet;
+        int tile = index % tilesPerSheet;
+        Sheet sheet = getSheet(sheetIndex);
+        if (sheet == null || isCancelled(task)) {
+            return null;
+        }
+
+        int left = (tile % mStoryboard.mColumns) * mStoryboard.mTileWidth;
+        int top = (tile / mStoryboard.mColumns) * mStoryboard.mTileHeight;
+        Rect region = new Rect(left, top, left + mStoryboard.mTileWidth,
+                top + mStoryboard.mTileHeight);
+        BitmapFactory.Options options = obtainDecodeOptions(mStoryboard.mTileWidth,
+                mStoryboard.mTileHeight);
+        Bitmap bitmap = sheet.decodeRegion(region, options);
+        releaseDecodeOptions(options, bitmap);
+        return bitmap;
+    }
+
+    @Override
+    public void reset() {
+        super.reset();
+        synchronized (mSheets) {
+            mSheets.evictAll();
+        }
+        closeEvicted();
+    }
+
+    /**
+     * @return The sheet, opened, or <code>null</code> if it cannot be read.
+     */
+    @WorkerThread
+    @Nullable
+    private Sheet getSheet(int sheetIndex) {
+        Sheet sheet;
+        synchronized (mSheets) {
+            sheet = mSheets.get(sheetIndex);
+            if (sheet == null) {
+                String uri = mStoryboard.mSheets.get(sheetIndex);
+                sheet = new Sheet(isAbsolute(uri) ? uri : mBaseUri + uri);
+                mSheets.put(sheetIndex, sheet);
+            }
+        }
+        closeEvicted();
+        // concurrent requests for the same sheet wait for the first one to read it
+        return sheet.open() ? sheet : null;
+    }
+
+    private void closeEvicted() {
+        Sheet[] evicted;
+        synchronized (mSheets) {
+            if (mEvicted.isEmpty()) {
+                return;
+            }
+            evicted = mEvicted.toArray(new Sheet[mEvicted.size()]);
+            mEvicted.clear();
+        }
+        for (Sheet sheet : evicted) {
+            sheet.close();
+        }
+    }
+
+    private static boolean isRemote(String uri) {
+        return uri.startsWith("http://") || uri.startsWith("https://");
+    }
+
+    private static boolean isAbsolute(String uri) {
+        return isRemote(uri) || uri.startsWith("/");
+    }
+
+    private static InputStream open(String uri) throws IOException {
+        if (!isRemote(uri)) {
+            return new FileInputStream(uri);
+        }
+        final HttpURLConnection connection = (HttpURLConnection) new URL(uri).openConnection();
+        connection.setConnectTimeout(CONNECT_TIMEOUT_MS);
+        connection.setReadTimeout(READ_TIMEOUT_MS);
+        int responseCode = connection.getResponseCode();
+        if (responseCode != HttpURLConnection.HTTP_OK) {
+            connection.disconnect();
+            throw new IOException("HTTP " + responseCode + " for " + uri);
+        }
+        // disconnected once the content has been read
+        return new FilterInputStream(connection.getInputStream()) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    connection.disconnect();
+                }
+            }
+        };
+    }
+
+    private static byte[] readFully(InputStream inputStream) throws IOException {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int count;
+            while ((count = inputStream.read(buffer)) != -1) {
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    /**
+     * A sheet of the storyboard, opened on first use. Opening it and decoding from it are
+     * serialized by the sheet itself.
+     */
+    private static final class Sheet {
+
+        final String mUri;
+        // null until opened, and again once closed
+        private BitmapRegionDecoder mDecoder;
+        private boolean mClosed;
+
+        Sheet(String uri) {
+            mUri = uri;
+        }
+
+        /**
+         * Reads the sheet unless it has been already.
+         *
+         * @return false if the sheet cannot be read or has been closed.
+         */
+        @WorkerThread
+        synchronized boolean open() {
+            if (mDecoder != null || mClosed) {
+                return mDecoder != null;
+            }
+            try {
+                if (isRemote(mUri)) {
+                    byte[] data = readFully(PlaybackSeekStoryboardDataProvider.open(mUri));
+                    mDecoder = BitmapRegionDecoder.newInstance(data, 0, data.length, false);
+                } else {
+                    mDecoder = BitmapRegionDecoder.newInstance(mUri, false);
+                }
+            } catch (IOException e) {
+                // not remembered, the next request tries again
+                Log.e(TAG, "Cannot open storyboard sheet " + mUri, e);
+                return false;
+            }
+            return true;
+        }
+
+        @WorkerThread
+        @Nullable
+        synchronized Bitmap decodeRegion(Rect region, BitmapFactory.Options options) {
+            if (mDecoder == null) {
+                return null;
+            }
+            try {
+                return mDecoder.decodeRegion(region, options);
+            } catch (IllegalArgumentException e) {
+                // the reused bitmap doesn't fit the tile after all
+                Bitmap reusable = options.inBitmap;
+                options.inBitmap = null;
+                Bitmap bitmap = mDecoder.decodeRegion(region, options);
+                options.inBitmap = reusable;
+                return bitmap;
+            }
+        }
+
+        /**
+         * Waits for the sheet to be opened or decoded from, then frees it.
+         */
+        synchronized void close() {
+            mClosed = true;
+            if (mDecoder != null) {
+                mDecoder.recycle();
+                mDecoder = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.os.Handler;
+import android.os.SystemClock;
+import android.support.annotation.Nullable;
+import android.support.v17.leanback.media.PlaybackGlueHost;
+
+/**
+ * Schedules the progress updates of a player at a rate which depends on what the user sees.
+ *
+ * Progress is polled at frame rate while the controls overlay is visible, which includes using
+ * the seek bar, and right after a key press while the overlay is fading in. With the overlay
+ * hidden the progress only feeds things like the media session, so it is polled once a second.
+ * While the player is paused nothing is scheduled at all; call {@link #onPlayStateChanged()} to
+ * resume.
+ */
+final class ProgressUpdateScheduler {
+
+    static final int FRAME_PERIOD_MS = 16;
+    static final int HIDDEN_PERIOD_MS = 1000;
+    // a key press shows the overlay, even if it isn't reported visible yet
+    private static final long INTERACTION_MS = 500;
+
+    interface Client {
+        void onUpdateProgress();
+
+        boolean isPlaying();
+
+        @Nullable
+        PlaybackGlueHost getHost();
+    }
+
+    private final Client mClient;
+    private final Handler mHandler = new Handler();
+    private final Runnable mUpdate = new Runnable() {
+        @Override
+        public void run() {
+            mScheduledPeriod = 0;
+            mClient.onUpdateProgress();
+            schedule();
+        }
+    };
+    private boolean mEnabled;
+    private long mLastInteraction = -INTERACTION_MS;
+    // period of the pending update, 0 if none
+    private int mScheduledPeriod;
+
+    ProgressUpdateScheduler(Client client) {
+        mClient = client;
+    }
+
+    void setEnabled(boolean enabled) {
+        mEnabled = enabled;
+        schedule();
+    }
+
+    /**
+     * To be called on key events, switches to frame rate right away.
+     */
+    void onUserInteraction() {
+        mLastInteraction = SystemClock.uptimeMillis();
+        if (mScheduledPeriod != FRAME_PERIOD_MS) {
+            schedule();
+        }
+    }
+
+    /**
+     * To be called when the player starts or stops playing.
+     */
+    void onPlayStateChanged() {
+        schedule();
+    }
+
+    int getUpdatePeriod() {
+        PlaybackGlueHost host = mClient.getHost();
+        boolean visible = host != null && host.isControlsOverlayVisible();
+        return visible || SystemClock.uptimeMillis() - mLastInteraction < INTERACTION_MS
+                ? FRAME_PERIOD_MS : HIDDEN_PERIOD_MS;
+    }
+
+    private void schedule() {
+        mHandler.removeCallbacks(mUpdate);
+        mScheduledPeriod = 0;
+        if (mEnabled && mClient.isPlaying()) {
+            mScheduledPeriod = getUpdatePeriod();
+            mHandler.postDelayed(mUpdate, mScheduledPeriod);
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+
+import com.google.gson.annotations.SerializedName;
+
+import java.util.List;
+
+/**
+ * The index of a storyboard: seek thumbnails of equal size laid out in a grid on a few large
+ * images, the sheets. Thumbnails are numbered row by row, continuing on the next sheet.
+ */
+@GenerateTypeAdapter
+public class Storyboard {
+
+    // milliseconds between two thumbnails
+    @SerializedName("interval") long mInterval;
+    @SerializedName("count") int mCount;
+    @SerializedName("tileWidth") int mTileWidth;
+    @SerializedName("tileHeight") int mTileHeight;
+    @SerializedName("columns") int mColumns;
+    @SerializedName("rows") int mRows;
+    // locations of the sheets, relative to the index
+    @SerializedName("sheets") List<String> mSheets;
+
+    int getTilesPerSheet() {
+        return mColumns * mRows;
+    }
+
+    boolean isValid() {
+        return mInterval > 0 && mCount > 0 && mTileWidth > 0 && mTileHeight > 0 && mColumns > 0
+                && mRows > 0 && mSheets != null
+                && mSheets.size() * getTilesPerSheet() >= mCount;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.support.annotation.Nullable;
+import android.support.annotation.VisibleForTesting;
+import android.support.annotation.WorkerThread;
+import android.util.Log;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Process wide disk cache of downscaled seek thumbnails, so a title which is opened again doesn't
+ * decode its thumbnails from the full size frames again.
+ *
+ * Thumbnails are stored as JPEG files in the app's cache directory, keyed by the media URI, the
+ * position index and the size the thumbnail was scaled to fit. They are compressed on the calling
+ * thread but written on a single background thread, to a temporary file which is renamed once
+ * complete, so readers never see a partial thumbnail. When the cache grows beyond
+ * {@link #MAX_SIZE} bytes, the least recently used thumbnails are deleted.
+ */
+public class ThumbnailDiskCache {
+
+    private static final String TAG = "ThumbnailDiskCache";
+
+    static final long MAX_SIZE = 20 * 1024 * 1024;
+    private static final String DIRECTORY = "seek_thumbnails";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final int QUALITY = 85;
+    private static final long CLOSE_TIMEOUT_SECONDS = 10;
+
+    private static ThumbnailDiskCache sInstance;
+
+    private final File mDirectory;
+    private final ExecutorService mWriter = Executors.newSingleThreadExecutor();
+    // bytes on disk, -1 until the directory has been scanned; only used on the writer thread
+    private long mSize = -1;
+
+    public static synchronized ThumbnailDiskCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new ThumbnailDiskCache(
+                    new File(context.getApplicationContext().getCacheDir(), DIRECTORY));
+        }
+        return sInstance;
+    }
+
+    /**
+     * Creates a cache in the given directory, separate from the process wide one. Call
+     * {@link #close()} once it is no longer used.
+     */
+    @VisibleForTesting
+    ThumbnailDiskCache(File directory) {
+        mDirectory = directory;
+    }
+
+    /**
+     * Waits for the pending writes and stops the writer thread. Only for caches created with
+     * {@link #ThumbnailDiskCache(File)}, the process wide cache stays open.
+     */
+    @VisibleForTesting
+    void close() throws InterruptedException {
+        mWriter.shutdown();
+        mWriter.awaitTermination(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Reads a thumbnail and marks it as recently used.
+     *
+     * @param options Options for the decode, e.g. with a bitmap to reuse. The bitmap to reuse is
+     * left in the options, the caller still owns it unless it is returned.
+     * @return The thumbnail, or <code>null</code> if it isn't cached.
+     */
+    @WorkerThread
+    @Nullable
+    public Bitmap get(String mediaUri, int index, int maxWidth, int maxHeight,
+            BitmapFactory.Options options) {
+        File file = getFile(mediaUri, index, maxWidth, maxHeight);
+        if (!file.exists()) {
+            return null;
+        }
+        Bitmap bitmap;
+        try {
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            // the reused bitmap doesn't fit the thumbnail
+            Bitmap reusable = options.inBitmap;
+            options.inBitmap = null;
+            bitmap = BitmapFactory.decodeFile(file.getPath(), options);
+            options.inBitmap = reusable;
+        }
+        if (bitmap != null) {
+            file.setLastModified(System.currentTimeMillis());
+        }
+        return bitmap;
+    }
+
+    /**
+     * Stores a thumbnail in the background. The bitmap is compressed before this method returns,
+     * so the caller may reuse it right away.
+     */
+    @WorkerThread
+    public void put(String mediaUri, int index, int maxWidth, int maxHeight, Bitmap bitmap) {
+        final File file = getFile(mediaUri, index, maxWidth, maxHeight);
+        final ByteArrayOutputStream data = new ByteArrayOutputStream();
+        if (!bitmap.compress(Bitmap.CompressFormat.JPEG, QUALITY, data)) {
+            return;
+        }
+        mWriter.execute(new Runnable() {
+            @Override
+            public void run() {
+                write(file, data);
+            }
+        });
+    }
+
+    @WorkerThread
+    private void write(File file, ByteArrayOutputStream data) {
+        if (mSize < 0) {
+            if (!mDirectory.isDirectory() && !mDirectory.mkdirs()) {
+                Log.e(TAG, "Cannot create " + mDirectory);
+                return;
+            }
+            mSize = 0;
+            for (File cached : listFiles()) {
+                mSize += cached.length();
+            }
+        }
+        long previousLength = file.length();
+        File temp = new File(file.getPath() + TEMP_SUFFIX);
+        FileOutputStream out = null;
+        try {
+            out = new FileOutputStream(temp);
+            data.writeTo(out);
+            out.close();
+            out = null;
+            if (!temp.renameTo(file)) {
+                throw new IOException("Cannot rename " + temp);
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Cannot write " + file, e);
+            temp.delete();
+            return;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // the temporary file is deleted anyway
+                }
+            }
+        }
+        mSize += file.length() - previousLength;
+        if (mSize > MAX_SIZE) {
+            trim();
+        }
+    }
+
+    /**
+     * Deletes the least recently used thumbnails until the cache is back to 90% of its limit, so
+     * not every write has to list the directory.
+     */
+    @WorkerThread
+    private void trim() {
+        File[] files = listFiles();
+        final long[] lastModified = new long[files.length];
+        Integer[] order = new Integer[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+            order[i] = i;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer first, Integer second) {
+                return Long.compare(lastModified[first], lastModified[second]);
+            }
+        });
+        long target = MAX_SIZE * 9 / 10;
+        for (int i = 0; i < order.length && mSize > target; i++) {
+            File file = files[order[i]];
+            long length = file.length();
+            if (file.delete()) {
+                mSize -= length;
+            }
+        }
+    }
+
+    private File[] listFiles() {
+        File[] files = mDirectory.listFiles();
+        return files != null ? files : new File[0];
+    }
+
+    private File getFile(String mediaUri, int index, int maxWidth, int maxHeight) {
+        String key = mediaUri + '#' + index + '@' + maxWidth + 'x' + maxHeight;
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes("UTF-8"));
+            StringBuilder name = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                name.append(Character.forDigit((b >> 4) & 0xf, 16))
+                        .append(Character.forDigit(b & 0xf, 16));
+            }
+            return new File(mDirectory, name.toString());
+        } catch (NoSuchAlgorithmException | UnsupportedEncodingException e) {
+            // both are required on every platform
+            throw new IllegalStateException(e);
+        }
+    }
+}
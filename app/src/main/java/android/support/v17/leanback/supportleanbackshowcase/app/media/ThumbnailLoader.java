@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+import android.graphics.Bitmap;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.support.annotation.MainThread;
+import android.support.annotation.WorkerThread;
+
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Process wide executor for seek thumbnails, shared by all {@link PlaybackSeekAsyncDataProvider}s.
+ *
+ * Unlike AsyncTask.THREAD_POOL_EXECUTOR it doesn't compete with the other background work of the
+ * app and runs tasks in priority order instead of FIFO: thumbnails requested by the user go before
+ * prefetches, and within each group the most recently submitted task goes first, so the thumbnail
+ * under the scrubber never waits for the positions already scrubbed past. At most
+ * {@link #MAX_CONCURRENT_DECODES} thumbnails are decoded at once.
+ */
+final class ThumbnailLoader {
+
+    static final int MAX_CONCURRENT_DECODES =
+            Math.max(1, Math.min(2, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static final long KEEP_ALIVE_SECONDS = 5;
+
+    private static ThumbnailLoader sInstance;
+
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    private final AtomicInteger mSequence = new AtomicInteger();
+    private final ThreadPoolExecutor mExecutor;
+
+    static synchronized ThumbnailLoader getInstance() {
+        if (sInstance == null) {
+            sInstance = new ThumbnailLoader();
+        }
+        return sInstance;
+    }
+
+    private ThumbnailLoader() {
+        mExecutor = new ThreadPoolExecutor(MAX_CONCURRENT_DECODES, MAX_CONCURRENT_DECODES,
+                KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new PriorityBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+                    private final AtomicInteger mCount = new AtomicInteger();
+
+                    @Override
+                    public Thread newThread(Runnable runnable) {
+                        return new Thread(runnable, "SeekThumbnail #" + mCount.incrementAndGet());
+                    }
+                });
+        mExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queues the task, ahead of every task of the same kind queued before it.
+     */
+    @MainThread
+    void execute(Task task) {
+        task.mSequence = mSequence.incrementAndGet();
+        mExecutor.execute(task);
+    }
+
+    /**
+     * Turns a prefetch into a user request and moves it to the front of the queue. Does nothing
+     * to the order once the task is running.
+     */
+    @MainThread
+    void promote(Task task) {
+        if (!task.mPrefetch) {
+            return;
+        }
+        boolean queued = mExecutor.remove(task);
+        task.mPrefetch = false;
+        if (queued) {
+            execute(task);
+        }
+    }
+
+    /**
+     * Removes the task from the queue, or interrupts it if it is already running. Its result is
+     * never delivered.
+     */
+    @MainThread
+    void cancel(Task task) {
+        task.cancel();
+        mExecutor.remove(task);
+    }
+
+    /**
+     * A single thumbnail to load. {@link #onLoaded(Bitmap)} runs on the main thread unless the task
+     * has been cancelled.
+     */
+    abstract static class Task implements Runnable, Comparable<Task> {
+
+        // both only change on the main thread while the task isn't queued
+        volatile boolean mPrefetch;
+        int mSequence;
+
+        private volatile boolean mCancelled;
+        // guarded by this
+        private Thread mThread;
+
+        Task(boolean prefetch) {
+            mPrefetch = prefetch;
+        }
+
+        @WorkerThread
+        protected abstract Bitmap load();
+
+        @MainThread
+        protected abstract void onLoaded(Bitmap bitmap);
+
+        boolean isCancelled() {
+            return mCancelled;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            if (mPrefetch != other.mPrefetch) {
+                return mPrefetch ? 1 : -1;
+            }
+            // last in, first out
+            return other.mSequence - mSequence;
+        }
+
+        @Override
+        public final void run() {
+            synchronized (this) {
+                if (mCancelled) {
+                    return;
+                }
+                mThread = Thread.currentThread();
+            }
+            Process.setThreadPriority(mPrefetch ? Process.THREAD_PRIORITY_LOWEST
+                    : Process.THREAD_PRIORITY_BACKGROUND);
+            final Bitmap bitmap;
+            try {
+                bitmap = load();
+            } finally {
+                synchronized (this) {
+                    mThread = null;
+                    // don't leak an interrupt from cancel() into the next task of this thread
+                    Thread.interrupted();
+                }
+            }
+            if (!mCancelled) {
+                getInstance().mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (!mCancelled) {
+                            onLoaded(bitmap);
+                        }
+                    }
+                });
+            }
+        }
+
+        private synchronized void cancel() {
+            mCancelled = true;
+            if (mThread != null) {
+                mThread.interrupt();
+            }
+        }
+    }
+}
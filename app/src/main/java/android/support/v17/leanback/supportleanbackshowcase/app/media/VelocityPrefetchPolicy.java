@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.media;
+
+/**
+ * Prefetch policy which spaces the prefetched thumbnails by how fast the user scrubs.
+ *
+ * The scrub velocity is estimated from the time between two requests for new positions and
+ * smoothed over the last few requests. While one thumbnail decodes the user moves about
+ * velocity * decode time positions, so prefetching the positions in between would only produce
+ * thumbnails nobody looks at; the stride is that distance instead, at least 1 and at most
+ * {@link #MAX_STRIDE}. A pause longer than {@link #IDLE_MILLIS} starts a new estimate.
+ */
+public class VelocityPrefetchPolicy implements PlaybackSeekAsyncDataProvider.PrefetchPolicy {
+
+    static final int MAX_STRIDE = 16;
+    static final long IDLE_MILLIS = 500;
+    static final long DEFAULT_DECODE_MILLIS = 100;
+
+    // weight of the latest sample in the smoothed velocity
+    private static final float SMOOTHING = 0.5f;
+
+    private final long mDecodeMillis;
+    private int mLastIndex = -1;
+    private long mLastTime;
+    // positions per millisecond, without direction
+    private float mVelocity;
+
+    public VelocityPrefetchPolicy() {
+        this(DEFAULT_DECODE_MILLIS);
+    }
+
+    /**
+     * @param decodeMillis The typical time to load one thumbnail.
+     */
+    public VelocityPrefetchPolicy(long decodeMillis) {
+        mDecodeMillis = decodeMillis;
+    }
+
+    @Override
+    public void onThumbnailRequested(int index, long uptimeMillis) {
+        long elapsed = uptimeMillis - mLastTime;
+        if (mLastIndex == -1 || elapsed > IDLE_MILLIS) {
+            mVelocity = 0;
+        } else {
+            float velocity = Math.abs(index - mLastIndex) / (float) Math.max(1, elapsed);
+            mVelocity = mVelocity == 0 ? velocity
+                    : SMOOTHING * velocity + (1 - SMOOTHING) * mVelocity;
+        }
+        mLastIndex = index;
+        mLastTime = uptimeMillis;
+    }
+
+    @Override
+    public int getStride() {
+        return Math.max(1, Math.min(MAX_STRIDE, Math.round(mVelocity * mDecodeMillis)));
+    }
+
+    /**
+     * @return The smoothed scrub velocity in positions per second.
+     */
+    public float getVelocity() {
+        return mVelocity * 1000;
+    }
+
+    @Override
+    public void reset() {
+        mLastIndex = -1;
+        mVelocity = 0;
+    }
+}
@@ -74,17 +74,18 @@ public class VideoConsumptionExampleWithExoPlayerFragment extends VideoFragment
         mMediaPlayerGlue.setMode(PlaybackControlsRow.RepeatAction.NONE);
         MediaMetaData intentMetaData = getActivity().getIntent().getParcelableExtra(
                 VideoExampleActivity.TAG);
+        Uri mediaUri;
         if (intentMetaData != null) {
             mMediaPlayerGlue.setTitle(intentMetaData.getMediaTitle());
             mMediaPlayerGlue.setSubtitle(intentMetaData.getMediaArtistName());
-            mMediaPlayerGlue.getPlayerAdapter().setDataSource(
-                    Uri.parse(intentMetaData.getMediaSourcePath()));
+            mediaUri = Uri.parse(intentMetaData.getMediaSourcePath());
         } else {
             mMediaPlayerGlue.setTitle("Diving with Sharks");
             mMediaPlayerGlue.setSubtitle("A Googler");
-            mMediaPlayerGlue.getPlayerAdapter().setDataSource(Uri.parse(URL));
+            mediaUri = Uri.parse(URL);
         }
-        PlaybackSeekDiskDataProvider.setDemoSeekProvider(mMediaPlayerGlue);
+        mMediaPlayerGlue.getPlayerAdapter().setDataSource(mediaUri);
+        PlaybackSeekDiskDataProvider.setDemoSeekProvider(mMediaPlayerGlue, mediaUri);
         playWhenReady(mMediaPlayerGlue);
         setBackgroundType(BG_LIGHT);
     }
@@ -22,6 +22,8 @@ import android.support.v17.leanback.media.PlayerAdapter;
 import android.support.v17.leanback.widget.Action;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.PlaybackControlsRow;
+import android.view.KeyEvent;
+import android.view.View;
 import android.widget.Toast;
 
 /**
@@ -63,6 +65,14 @@ public class VideoMediaPlayerGlue<T extends PlayerAdapter> extends PlaybackTrans
         adapter.add(mClosedCaptioningAction);
     }
 
+    @Override
+    public boolean onKey(View v, int keyCode, KeyEvent event) {
+        if (getPlayerAdapter() instanceof ExoPlayerAdapter) {
+            ((ExoPlayerAdapter) getPlayerAdapter()).onUserInteraction();
+        }
+        return super.onKey(v, keyCode, event);
+    }
+
     @Override
     public void onActionClicked(Action action) {
         if (shouldDispatchAction(action)) {
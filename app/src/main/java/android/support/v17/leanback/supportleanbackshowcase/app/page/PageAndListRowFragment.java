@@ -27,7 +27,7 @@ import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.Car
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.FocusHighlight;
 import android.support.v17.leanback.widget.HeaderItem;
@@ -36,7 +36,6 @@ import android.support.v17.leanback.widget.ListRowPresenter;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.PageRow;
 import android.support.v17.leanback.widget.Presenter;
-import android.support.v17.leanback.widget.PresenterSelector;
 import android.support.v17.leanback.widget.Row;
 import android.support.v17.leanback.widget.RowPresenter;
 import android.support.v17.leanback.widget.VerticalGridPresenter;
@@ -47,7 +46,6 @@ import android.webkit.WebView;
 import android.webkit.WebViewClient;
 import android.widget.FrameLayout;
 import android.widget.Toast;
-import com.google.gson.Gson;
 
 /**
  * Sample {@link BrowseFragment} implementation showcasing the use of {@link PageRow} and
@@ -200,10 +198,14 @@ public class PageAndListRowFragment extends BrowseFragment {
         }
 
         private void loadData() {
-            String json = Utils.inputStreamToString(getResources().openRawResource(
-                    R.raw.grid_example));
-            CardRow cardRow = new Gson().fromJson(json, CardRow.class);
-            mAdapter.addAll(0, cardRow.getCards());
+            RawModelCache.getInstance(getActivity()).load(R.raw.grid_example, CardRow.class,
+                    new RawModelCache.Callback<CardRow>() {
+                        @Override
+                        public void onModelReady(CardRow cardRow) {
+                            if (!isAdded()) return;
+                            mAdapter.addAll(0, cardRow.getCards());
+                        }
+                    });
         }
     }
 
@@ -212,9 +214,12 @@ public class PageAndListRowFragment extends BrowseFragment {
      */
     public static class SampleFragmentB extends RowsFragment {
         private final ArrayObjectAdapter mRowsAdapter;
+        private final ShadowRowPresenterSelector mRowPresenterSelector =
+                new ShadowRowPresenterSelector();
+        private CardPresenterSelector mCardPresenterSelector;
 
         public SampleFragmentB() {
-            mRowsAdapter = new ArrayObjectAdapter(new ShadowRowPresenterSelector());
+            mRowsAdapter = new ArrayObjectAdapter(mRowPresenterSelector);
 
             setAdapter(mRowsAdapter);
             setOnItemViewClickedListener(new OnItemViewClickedListener() {
@@ -233,24 +238,39 @@ public class PageAndListRowFragment extends BrowseFragment {
         @Override
         public void onCreate(Bundle savedInstanceState) {
             super.onCreate(savedInstanceState);
+            // all rows share the card presenters, so they can recycle each other's cards
+            mCardPresenterSelector = new CardPresenterSelector(getActivity());
+            mCardPresenterSelector.applyRecycledPoolSizes(mRowPresenterSelector.getPresenters());
             createRows();
-            getMainFragmentAdapter().getFragmentHost().notifyDataReady(getMainFragmentAdapter());
+        }
+
+        @Override
+        public void onDestroyView() {
+            // the card presenters outlive the views, don't keep unused cards around
+            mCardPresenterSelector.releasePreInflated();
+            super.onDestroyView();
         }
 
         private void createRows() {
-                String json = Utils.inputStreamToString(getResources().openRawResource(
-                        R.raw.page_row_example));
-                CardRow[] rows = new Gson().fromJson(json, CardRow[].class);
-                for (CardRow row : rows) {
-                    if (row.getType() == CardRow.TYPE_DEFAULT) {
-                        mRowsAdapter.add(createCardRow(row));
-                    }
-                }
+            RawModelCache.getInstance(getActivity()).load(R.raw.page_row_example,
+                    CardRow[].class, new RawModelCache.Callback<CardRow[]>() {
+                        @Override
+                        public void onModelReady(CardRow[] rows) {
+                            if (!isAdded()) return;
+                            for (CardRow row : rows) {
+                                if (row.getType() == CardRow.TYPE_DEFAULT) {
+                                    mRowsAdapter.add(createCardRow(row));
+                                }
+                            }
+                            mCardPresenterSelector.preInflate(rows);
+                            getMainFragmentAdapter().getFragmentHost().notifyDataReady(
+                                    getMainFragmentAdapter());
+                        }
+                    });
         }
 
         private Row createCardRow(CardRow cardRow) {
-            PresenterSelector presenterSelector = new CardPresenterSelector(getActivity());
-            ArrayObjectAdapter adapter = new ArrayObjectAdapter(presenterSelector);
+            ArrayObjectAdapter adapter = new ArrayObjectAdapter(mCardPresenterSelector);
             for (Card card : cardRow.getCards()) {
                 adapter.add(card);
             }
@@ -283,12 +303,16 @@ public class PageAndListRowFragment extends BrowseFragment {
 
         private void loadData() {
             if (isAdded()) {
-                String json = Utils.inputStreamToString(getResources().openRawResource(
-                        R.raw.icon_example));
-                CardRow cardRow = new Gson().fromJson(json, CardRow.class);
-                mRowsAdapter.add(createCardRow(cardRow));
-                getMainFragmentAdapter().getFragmentHost().notifyDataReady(
-                        getMainFragmentAdapter());
+                RawModelCache.getInstance(getActivity()).load(R.raw.icon_example, CardRow.class,
+                        new RawModelCache.Callback<CardRow>() {
+                            @Override
+                            public void onModelReady(CardRow cardRow) {
+                                if (!isAdded()) return;
+                                mRowsAdapter.add(createCardRow(cardRow));
+                                getMainFragmentAdapter().getFragmentHost().notifyDataReady(
+                                        getMainFragmentAdapter());
+                            }
+                        });
             }
         }
 
@@ -18,6 +18,7 @@ package android.support.v17.leanback.supportleanbackshowcase.app.room.api;
 
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.constant.GsonConstant;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
 
 import com.google.gson.annotations.SerializedName;
 
@@ -40,9 +41,10 @@ import java.util.List;
  * It also contains a static inner class VideosGroupByCategory. So we can deserialize the video
  * contents in that inside the google tag.
  */
+@GenerateTypeAdapter
 public class VideosWithGoogleTag {
     @SerializedName(GsonConstant.GOOGLE_VIDEO_TAG)
-    private List<VideosGroupByCategory> mAllResources;
+    List<VideosGroupByCategory> mAllResources;
 
     public List<VideosGroupByCategory> getAllResources() {
         return mAllResources;
@@ -58,12 +60,13 @@ public class VideosWithGoogleTag {
      *     }]
      * }]
      */
+    @GenerateTypeAdapter
     public static class VideosGroupByCategory {
         @SerializedName("category")
-        private String mCategory;
+        String mCategory;
 
         @SerializedName("videos")
-        private List<VideoEntity> mVideos;
+        List<VideoEntity> mVideos;
 
         public String getCategory() {
             return mCategory;
@@ -21,14 +21,16 @@ import android.arch.lifecycle.Observer;
 import android.arch.lifecycle.ViewModelProvider;
 import android.arch.lifecycle.ViewModelProviders;
 import android.graphics.Bitmap;
+import android.net.Uri;
 import android.os.AsyncTask;
 import android.os.Bundle;
 import android.support.annotation.Nullable;
 import android.support.v17.leanback.app.BackgroundManager;
 import android.support.v17.leanback.app.DetailsSupportFragment;
 import android.support.v17.leanback.app.DetailsSupportFragmentBackgroundController;
-import android.support.v17.leanback.media.MediaPlayerGlue;
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.ExoPlayerAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.VideoMediaPlayerGlue;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.adapter.ListAdapter;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.config.AppConfiguration;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.app.SampleApplication;
@@ -43,6 +45,7 @@ import android.support.v17.leanback.supportleanbackshowcase.app.room.di.adapter.
 import android.support.v17.leanback.supportleanbackshowcase.app.room.di.subcomponentinjection.DaggerApplicationComponent;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.network.NetworkLiveData;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.viewmodel.VideosViewModel;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
 import android.support.v17.leanback.widget.Action;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.DetailsOverviewRow;
@@ -91,7 +94,7 @@ public class LiveDataDetailViewWithVideoBackgroundFragment extends DetailsSuppor
     DetailsOverviewRow mDescriptionOverviewRow;
 
     @Inject
-    MediaPlayerGlue mVideoGlue;
+    VideoMediaPlayerGlue<ExoPlayerAdapter> mVideoGlue;
 
     @Inject
     @DetailFragmentArrayObjectAdapterForActionsQualifier
@@ -211,7 +214,7 @@ public class LiveDataDetailViewWithVideoBackgroundFragment extends DetailsSuppor
                         mActionAdapter.add(mActionPreview);
 
                         mVideoGlue.setTitle(mObservedVideo.getTitle().concat(TRAILER_VIDEO));
-                        mVideoGlue.setVideoUrl(findLocalContentUriOrNetworkUrl(TRAILER));
+                        setVideoUrl(findLocalContentUriOrNetworkUrl(TRAILER));
                     } else {
                         getActivity().findViewById(R.id.renting_progressbar)
                                 .setVisibility(View.GONE);
@@ -221,7 +224,7 @@ public class LiveDataDetailViewWithVideoBackgroundFragment extends DetailsSuppor
                         mActionAdapter.add(mActionPlay);
 
                         mVideoGlue.setTitle(mObservedVideo.getTitle().concat(RENTED_VIDEO));
-                        mVideoGlue.setVideoUrl(findLocalContentUriOrNetworkUrl(VIDEO));
+                        setVideoUrl(findLocalContentUriOrNetworkUrl(VIDEO));
                     }
 
                     mDescriptionOverviewRow.setItem(mObservedVideo);
@@ -308,6 +311,7 @@ public class LiveDataDetailViewWithVideoBackgroundFragment extends DetailsSuppor
         Glide.with(this)
                 .asBitmap()
                 .load(loadedUri)
+                .apply(ImageProfiles.CARD)
                 .apply(mDefaultPlaceHolder)
                 .into(new SimpleTarget<Bitmap>() {
                     @Override
@@ -355,6 +359,12 @@ public class LiveDataDetailViewWithVideoBackgroundFragment extends DetailsSuppor
         return loadedUri;
     }
 
+    private void setVideoUrl(String videoUrl) {
+        if (videoUrl != null) {
+            mVideoGlue.getPlayerAdapter().setDataSource(Uri.parse(videoUrl));
+        }
+    }
+
     private void addDelay(long ms) {
         try {
             Thread.sleep(ms);
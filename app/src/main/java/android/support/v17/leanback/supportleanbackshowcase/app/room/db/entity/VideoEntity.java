@@ -24,11 +24,13 @@ import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.constant.DatabaseColumnConstant;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.constant.GsonConstant;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
 
 import com.google.gson.annotations.SerializedName;
 
 import java.util.List;
 
+@GenerateTypeAdapter
 @Entity(tableName = DatabaseColumnConstant.VideoEntry.TABLE_NAME)
 public class VideoEntity implements  Parcelable {
 
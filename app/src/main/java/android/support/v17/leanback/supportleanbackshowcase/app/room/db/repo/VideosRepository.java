@@ -20,6 +20,7 @@ package android.support.v17.leanback.supportleanbackshowcase.app.room.db.repo;
 import android.arch.lifecycle.LiveData;
 import android.arch.persistence.room.Room;
 import android.os.AsyncTask;
+import android.support.annotation.VisibleForTesting;
 import android.support.annotation.WorkerThread;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.app.SampleApplication;
@@ -34,7 +35,7 @@ import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.V
 import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.util.Log;
 
-import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
 
 import java.io.IOException;
 import java.util.HashMap;
@@ -159,6 +160,35 @@ public class VideosRepository {
         mVideoEntitiesCache = new HashMap<>();
     }
 
+    /**
+     * Creates a repository on top of an already built database without populating it, so the
+     * caller (i.e. a benchmark) controls which catalog gets ingested.
+     *
+     * @param db Room database.
+     */
+    @VisibleForTesting
+    public VideosRepository(AppDatabase db) {
+        mDb = db;
+        mVideoDao = mDb.videoDao();
+        mCategoryDao = mDb.categoryDao();
+        mVideoEntitiesCache = new HashMap<>();
+    }
+
+    /**
+     * Synchronously ingests a whole catalog into the database, applying the same customization as
+     * the regular population path.
+     *
+     * @param videosWithGoogleTag catalog to insert.
+     */
+    @WorkerThread
+    public void ingest(VideosWithGoogleTag videosWithGoogleTag) {
+        for (VideosWithGoogleTag.VideosGroupByCategory videosGroupByCategory :
+                videosWithGoogleTag.getAllResources()) {
+            postProcessing(videosGroupByCategory);
+            insertCategory(mDb, videosGroupByCategory);
+        }
+    }
+
     private void createAndPopulateDatabase() {
         mDb = Room.databaseBuilder(SampleApplication.getInstance(),
                 AppDatabase.class, AppDatabase.DATABASE_NAME).build();
@@ -175,21 +205,25 @@ public class VideosRepository {
 
     private void initializeDb(AppDatabase db, String url) throws IOException {
 
-        // json data
-        String json;
-
         if (AppConfiguration.IS_DEBUGGING_VERSION) {
 
             // when use debugging version, we won't fetch data from network but using local
             // json file (only contain 4 video entities in 2 categories.)
-            json = Utils.inputStreamToString(SampleApplication
-                    .getInstance()
-                    .getApplicationContext()
-                    .getResources()
-                    .openRawResource(R.raw.live_movie_debug));
-            Gson gson = new Gson();
-            VideosWithGoogleTag videosWithGoogleTag = gson.fromJson(json,
-                    VideosWithGoogleTag.class);
+            VideosWithGoogleTag videosWithGoogleTag;
+            try {
+                videosWithGoogleTag = Utils.rawResourceFromJson(SampleApplication
+                        .getInstance()
+                        .getApplicationContext()
+                        .getResources(), R.raw.live_movie_debug, Utils.getGson(),
+                        VideosWithGoogleTag.class);
+            } catch (JsonParseException e) {
+                Log.e(TAG, "Fail to parse the local content", e);
+                return;
+            }
+            if (videosWithGoogleTag == null) {
+                Log.d(TAG, "initializeDb: local content is empty");
+                return;
+            }
             populateDatabase(videosWithGoogleTag,db);
         } else {
             buildDatabase(db, url);
@@ -205,7 +239,7 @@ public class VideosRepository {
         Retrofit retrofit = new Retrofit
                 .Builder()
                 .baseUrl(url)
-                .addConverterFactory(GsonConverterFactory.create())
+                .addConverterFactory(GsonConverterFactory.create(Utils.getGson()))
                 .build();
         VideoDownloadingService service = retrofit.create(VideoDownloadingService.class);
 
@@ -233,24 +267,13 @@ public class VideosRepository {
         for (final VideosWithGoogleTag.VideosGroupByCategory videosGroupByCategory :
                 videosWithGoogleTag.getAllResources()) {
 
-            // create category table
-            final CategoryEntity categoryEntity = new CategoryEntity();
-            categoryEntity.setCategoryName(videosGroupByCategory.getCategory());
-
             // create video table with customization
             postProcessing(videosGroupByCategory);
 
             new AsyncTask<Void, Void, Void>() {
                 @Override
                 protected Void doInBackground(Void... voids) {
-                    try {
-                        db.beginTransaction();
-                        db.categoryDao().insertCategory(categoryEntity);
-                        db.videoDao().insertAllVideos(videosGroupByCategory.getVideos());
-                        db.setTransactionSuccessful();
-                    } finally {
-                        db.endTransaction();
-                    }
+                    insertCategory(db, videosGroupByCategory);
                     return null;
                 }
             }.execute();
@@ -258,6 +281,26 @@ public class VideosRepository {
         }
     }
 
+    /**
+     * Inserts one category and all of its videos in a single transaction.
+     */
+    @WorkerThread
+    private static void insertCategory(AppDatabase db,
+            VideosWithGoogleTag.VideosGroupByCategory videosGroupByCategory) {
+
+        // create category table
+        CategoryEntity categoryEntity = new CategoryEntity();
+        categoryEntity.setCategoryName(videosGroupByCategory.getCategory());
+        try {
+            db.beginTransaction();
+            db.categoryDao().insertCategory(categoryEntity);
+            db.videoDao().insertAllVideos(videosGroupByCategory.getVideos());
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
     /**
      * Helper function to make some customization on raw data
      */
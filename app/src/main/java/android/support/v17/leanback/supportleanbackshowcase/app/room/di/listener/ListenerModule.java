@@ -18,9 +18,6 @@ package android.support.v17.leanback.supportleanbackshowcase.app.room.di.listene
 
 import android.app.Activity;
 import android.content.Intent;
-import android.graphics.Bitmap;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Looper;
@@ -32,6 +29,7 @@ import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.
 import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.search.SearchFragment;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.di.scope.PerFragment;
+import android.support.v17.leanback.supportleanbackshowcase.utils.BackgroundArtLoader;
 import android.support.v17.leanback.widget.ImageCardView;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.OnItemViewSelectedListener;
@@ -39,13 +37,8 @@ import android.support.v17.leanback.widget.Presenter;
 import android.support.v17.leanback.widget.Row;
 import android.support.v17.leanback.widget.RowPresenter;
 import android.support.v4.app.ActivityOptionsCompat;
-import android.util.DisplayMetrics;
 import android.view.View;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.RequestOptions;
-import com.bumptech.glide.request.target.SimpleTarget;
-import com.bumptech.glide.request.transition.Transition;
 import javax.inject.Singleton;
 
 import dagger.Module;
@@ -162,15 +155,23 @@ public class ListenerModule {
     @IntoMap
     @ListenerModuleKey(LiveDataFragment.class)
     public OnItemViewSelectedListener provideOnItemViewSelectedListener(final Activity activity,
-            final DisplayMetrics metrics, final BackgroundManager backgroundManager,
-            final RequestOptions defaultPlaceHolder, final Drawable finalDrawable, final Handler mainHandler) {
+            final BackgroundManager backgroundManager, final Handler mainHandler) {
         return new OnItemViewSelectedListener() {
             @Override
             public void onItemSelected(Presenter.ViewHolder itemViewHolder, Object item,
                     RowPresenter.ViewHolder rowViewHolder, Row row) {
                 VideoEntity selectedVideo = (VideoEntity) item;
+
+                // warm up the backgrounds of the neighbours while the selection settles
+                BackgroundArtLoader.getInstance(activity).prefetchNeighbours(rowViewHolder, row,
+                        new BackgroundArtLoader.UrlResolver() {
+                            @Override
+                            public String getBackgroundUrl(Object neighbour) {
+                                return getBackgroundImageUrl((VideoEntity) neighbour);
+                            }
+                        });
                 RunnableClass backgroundRunnable = new RunnableClass(selectedVideo, activity,
-                        metrics, backgroundManager, defaultPlaceHolder, finalDrawable);
+                        backgroundManager);
 
                 if (lastTime != null) {
                     mainHandler.removeCallbacks(lastTime);
@@ -203,62 +204,39 @@ public class ListenerModule {
 
         private VideoEntity mSelectedVideo;
         private Activity mActivity;
-        private DisplayMetrics mDisplayMetrics;
         private BackgroundManager mBackgroundManager;
-        private RequestOptions mDefaultPlaceHolder;
-        private Drawable mDrawable;
 
         public RunnableClass(VideoEntity selectedVideo, final Activity activity,
-                DisplayMetrics metrics, BackgroundManager backgroundManager,
-                RequestOptions defaultPlaceHolder, final Drawable drawable) {
+                BackgroundManager backgroundManager) {
             mSelectedVideo = selectedVideo;
             mActivity = activity;
-            mDisplayMetrics = metrics;
             mBackgroundManager = backgroundManager;
-            mDefaultPlaceHolder = defaultPlaceHolder;
-            mDrawable = drawable;
         }
 
         @Override
         public void run() {
-            loadAndSetBackgroundImageParameter(mSelectedVideo, mActivity, mDisplayMetrics,
-                    mBackgroundManager, mDefaultPlaceHolder, mDrawable);
+            loadAndSetBackgroundImageParameter(mSelectedVideo, mActivity, mBackgroundManager);
         }
     }
 
     private void loadAndSetBackgroundImageParameter(VideoEntity selectedVideo,
-            final Activity activity, DisplayMetrics metrics,
-            final BackgroundManager backgroundManager, RequestOptions defaultPlaceHolder,
-            Drawable defualtDrawble) {
+            final Activity activity, final BackgroundManager backgroundManager) {
         if (selectedVideo == null) {
             return;
         }
-        String url1 = selectedVideo.getVideoBgImageLocalStorageUrl();
-        String url2 = selectedVideo.getBgImageUrl();
-        String loadedUri;
-        if (url1.isEmpty()) {
-            loadedUri = url2;
-        } else {
-            loadedUri = url1;
-        }
 
         // wait until runtime the activity has window
         if (!backgroundManager.isAttached()) {
             backgroundManager.attach(activity.getWindow());
         }
 
-        // glide on error
-        Glide.with(activity)
-                .asBitmap()
-                .load(loadedUri)
-                .apply(defaultPlaceHolder)
-                .into(new SimpleTarget<Bitmap>(metrics.widthPixels, metrics.heightPixels) {
-                    @Override
-                    public void onResourceReady(Bitmap resource,
-                            Transition<? super Bitmap> glideAnimation) {
-                        backgroundManager.setDrawable(
-                                new BitmapDrawable(activity.getResources(), resource));
-                    }
-                });
+        // decoded at the size of the screen, and reused when the video is selected again
+        BackgroundArtLoader.getInstance(activity)
+                .show(backgroundManager, getBackgroundImageUrl(selectedVideo));
+    }
+
+    private static String getBackgroundImageUrl(VideoEntity video) {
+        String localUrl = video.getVideoBgImageLocalStorageUrl();
+        return localUrl.isEmpty() ? video.getBgImageUrl() : localUrl;
     }
 }
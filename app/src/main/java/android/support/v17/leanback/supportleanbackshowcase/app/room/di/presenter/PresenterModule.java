@@ -30,10 +30,10 @@ import java.util.Map;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.ui.VideoCardPresenter;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
+import android.support.v17.leanback.supportleanbackshowcase.utils.PreloadingListRowPresenter;
 import android.support.v17.leanback.widget.DetailsOverviewRow;
 import android.support.v17.leanback.widget.FullWidthDetailsOverviewRowPresenter;
 import android.support.v17.leanback.widget.ListRow;
-import android.support.v17.leanback.widget.ListRowPresenter;
 import android.support.v17.leanback.widget.Presenter;
 import dagger.Module;
 import dagger.Provides;
@@ -59,7 +59,7 @@ public class PresenterModule {
     @IntoMap
     @PresenterSelectorKey(ListRow.class)
     public Presenter provideListRowPresenter() {
-        return new ListRowPresenter();
+        return new PreloadingListRowPresenter();
     }
 
     @PerFragment
@@ -20,7 +20,8 @@ import android.app.Activity;
 import android.arch.lifecycle.ViewModelProvider;
 import android.support.v17.leanback.app.DetailsSupportFragment;
 import android.support.v17.leanback.app.DetailsSupportFragmentBackgroundController;
-import android.support.v17.leanback.media.MediaPlayerGlue;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.ExoPlayerAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.VideoMediaPlayerGlue;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.adapter.ListAdapter;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.detail.LiveDataDetailViewWithVideoBackgroundFragment;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
@@ -77,7 +78,7 @@ public interface LiveDataDetailFragmentSubComponent {
 
     DetailsSupportFragmentBackgroundController fragmentBackgroundController();
 
-    MediaPlayerGlue mediaPlayerGlue();
+    VideoMediaPlayerGlue<ExoPlayerAdapter> mediaPlayerGlue();
 
 
     @DetailFragmentArrayObjectAdapterForActionsQualifier
@@ -19,7 +19,8 @@ package android.support.v17.leanback.supportleanbackshowcase.app.room.di.subcomp
 import android.app.Activity;
 import android.support.v17.leanback.app.DetailsSupportFragment;
 import android.support.v17.leanback.app.DetailsSupportFragmentBackgroundController;
-import android.support.v17.leanback.media.MediaPlayerGlue;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.ExoPlayerAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.app.media.VideoMediaPlayerGlue;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.controller.detail.LiveDataDetailActivity;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.di.scope.PerFragment;
 import android.support.v17.leanback.widget.DetailsOverviewRow;
@@ -63,7 +64,8 @@ public class LiveDataDetailFragmentUiModule {
 
     @Provides
     @PerFragment
-    MediaPlayerGlue provideMediaPlayerGlue(Activity activity) {
-        return new MediaPlayerGlue(activity);
+    VideoMediaPlayerGlue<ExoPlayerAdapter> provideMediaPlayerGlue(Activity activity) {
+        // ExoPlayer, so the trailer is played from the shared media cache after the first time
+        return new VideoMediaPlayerGlue<>(activity, new ExoPlayerAdapter(activity));
     }
 }
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.app.room.network;
+
+import android.arch.lifecycle.LifecycleOwner;
+import android.arch.lifecycle.Observer;
+import android.content.Context;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Tracks the network and storage permission status for the cards of one screen.
+ *
+ * The hub observes {@link NetworkLiveData} and {@link PermissionLiveData} once, for the lifetime
+ * of the screen, and notifies only the listeners which are currently attached, usually the cards
+ * on screen. A status change then costs one call per visible card, however many cards have been
+ * bound before.
+ */
+@MainThread
+public class ConnectivityStateHub {
+
+    /**
+     * Notified when the network or permission status changes, while attached.
+     */
+    public interface Listener {
+        void onConnectivityChanged(ConnectivityStateHub hub);
+    }
+
+    private final Set<Listener> mListeners = new LinkedHashSet<>();
+    private final ArrayList<Listener> mDispatching = new ArrayList<>();
+
+    private Boolean mNetworkAvailable;
+    private Boolean mPermissionGranted;
+
+    public ConnectivityStateHub(Context context, LifecycleOwner owner) {
+        NetworkLiveData.sync(context).observe(owner, new Observer<Boolean>() {
+            @Override
+            public void onChanged(@Nullable Boolean networkAvailable) {
+                mNetworkAvailable = networkAvailable;
+                dispatch();
+            }
+        });
+        PermissionLiveData.get().observe(owner, new Observer<Boolean>() {
+            @Override
+            public void onChanged(@Nullable Boolean permissionGranted) {
+                mPermissionGranted = permissionGranted;
+                dispatch();
+            }
+        });
+    }
+
+    /**
+     * @return Whether the network is available, <code>null</code> if it isn't known yet.
+     */
+    @Nullable
+    public Boolean isNetworkAvailable() {
+        return mNetworkAvailable;
+    }
+
+    /**
+     * @return Whether the storage permission is granted, <code>null</code> if it hasn't been
+     * requested yet.
+     */
+    @Nullable
+    public Boolean isPermissionGranted() {
+        return mPermissionGranted;
+    }
+
+    public void attach(Listener listener) {
+        mListeners.add(listener);
+    }
+
+    public void detach(Listener listener) {
+        mListeners.remove(listener);
+    }
+
+    private void dispatch() {
+        // listeners may detach while being notified
+        mDispatching.addAll(mListeners);
+        for (int i = 0; i < mDispatching.size(); i++) {
+            mDispatching.get(i).onConnectivityChanged(this);
+        }
+        mDispatching.clear();
+    }
+}
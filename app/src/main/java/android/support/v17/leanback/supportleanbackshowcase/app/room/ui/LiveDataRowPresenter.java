@@ -26,6 +26,7 @@ import android.support.annotation.Nullable;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.adapter.ListAdapter;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.viewmodel.VideosInSameCategoryViewModel;
+import android.support.v17.leanback.supportleanbackshowcase.utils.PreloadingListRowPresenter;
 import android.support.v17.leanback.widget.HorizontalGridView;
 import android.support.v17.leanback.widget.ListRow;
 import android.support.v17.leanback.widget.ListRowPresenter;
@@ -42,7 +43,7 @@ import java.util.List;
 /**
  * The presenter for live data row
  */
-public class LiveDataRowPresenter extends ListRowPresenter {
+public class LiveDataRowPresenter extends PreloadingListRowPresenter {
 
     private ListRow mRow;
     private List<DataLoadedListener> mDataLoadedListeners;
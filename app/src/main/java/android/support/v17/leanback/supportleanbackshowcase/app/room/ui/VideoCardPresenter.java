@@ -17,27 +17,30 @@
 package android.support.v17.leanback.supportleanbackshowcase.app.room.ui;
 
 import android.arch.lifecycle.LifecycleOwner;
-import android.arch.lifecycle.Observer;
 import android.arch.lifecycle.ViewModelProviders;
 import android.content.Context;
 import android.content.res.Resources;
-import android.graphics.drawable.Drawable;
 import android.os.AsyncTask;
-import android.support.annotation.Nullable;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.config.AppConfiguration;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.db.entity.VideoEntity;
-import android.support.v17.leanback.supportleanbackshowcase.app.room.network.NetworkLiveData;
+import android.support.v17.leanback.supportleanbackshowcase.app.room.network.ConnectivityStateHub;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.network.NetworkManagerUtil;
-import android.support.v17.leanback.supportleanbackshowcase.app.room.network.PermissionLiveData;
 import android.support.v17.leanback.supportleanbackshowcase.app.room.viewmodel.VideosViewModel;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImagePreloadProvider;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageUrlTemplate;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceCache;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RowImagePreloader;
 import android.support.v17.leanback.widget.ImageCardView;
 import android.support.v17.leanback.widget.Presenter;
 import android.support.v4.app.FragmentActivity;
 import android.support.v4.content.ContextCompat;
 import android.support.v7.widget.PopupMenu;
+import android.text.TextUtils;
 import android.util.Log;
 import android.view.ContextThemeWrapper;
+import android.view.Menu;
 import android.view.MenuItem;
 import android.view.View;
 import android.view.ViewGroup;
@@ -53,10 +56,10 @@ import javax.inject.Inject;
  * The video card presenter which can respond to long click action and present current video's
  * state (Downloading/ Removing/ Downloaded)
  */
-public class VideoCardPresenter extends Presenter {
+public class VideoCardPresenter extends Presenter implements ImagePreloadProvider {
 
     // For debugging purpose
-    private static final boolean DEBUG = true;
+    private static final boolean DEBUG = false;
     private static final String TAG =  "VideoCardPresenter";
 
     // String constant
@@ -73,10 +76,20 @@ public class VideoCardPresenter extends Presenter {
     private static final String DOWNLOAD_VIDEO_NO_PERMISSION = "Download Video (No Permission)";
     private static final String DOWNLOAD_VIDEO_NO_NETWORK = "Download Video (No Network)";
 
-    // The default resource when the network or local content are not available.
-    private static int sSelectedBackgroundColor = -1;
-    private static int sDefaultBackgroundColor = -1;
-    private static Drawable sDefaultCardImage;
+    // card art is decoded at the size of the card, see ImageProfiles#card
+    private int mCardWidth;
+    private int mCardHeight;
+    private RequestOptions mCardImageOptions;
+
+    // resolved when the first card is created, and shared by all cards of the screen
+    private int mSelectedBackgroundColor;
+    private int mDefaultBackgroundColor;
+    // when glide library cannot fetch data from internet, and there is no local content, the
+    // placeholder is shown
+    private RequestOptions mDefaultPlaceHolder;
+    private VideosViewModel mViewModel;
+    // network and permission status, pushed to the cards on screen
+    private ConnectivityStateHub mStateHub;
 
     @Inject
     public VideoCardPresenter() {
@@ -86,12 +99,7 @@ public class VideoCardPresenter extends Presenter {
     @Override
     public ViewHolder onCreateViewHolder(ViewGroup parent) {
         Context mContext = parent.getContext();
-        sDefaultBackgroundColor =
-                ContextCompat.getColor(parent.getContext(), R.color.default_background);
-        sSelectedBackgroundColor =
-                ContextCompat.getColor(parent.getContext(), R.color.selected_background);
-        sDefaultCardImage =
-                parent.getResources().getDrawable(R.drawable.no_cache_no_internet, null);
+        initScreenResources(mContext);
         ImageCardView cardView = new ImageCardView(parent.getContext()) {
             @Override
             public void setSelected(boolean selected) {
@@ -101,10 +109,26 @@ public class VideoCardPresenter extends Presenter {
         };
         cardView.setFocusable(true);
         cardView.setFocusableInTouchMode(true);
+        cardView.setMainImageDimensions(mCardWidth, mCardHeight);
+        ResourceCache.attach(cardView, R.id.info_field);
         updateCardBackgroundColor(cardView, false);
         return new CardViewHolder(cardView, mContext);
     }
 
+    private void initScreenResources(Context context) {
+        if (mViewModel != null) {
+            return;
+        }
+        mDefaultBackgroundColor = ContextCompat.getColor(context, R.color.default_background);
+        mSelectedBackgroundColor = ContextCompat.getColor(context, R.color.selected_background);
+        initCardImageOptions(context);
+        // glide resolves the drawable for every request, so no drawable is shared between cards
+        mDefaultPlaceHolder = mCardImageOptions.clone()
+                .placeholder(R.drawable.no_cache_no_internet);
+        mViewModel = ViewModelProviders.of((FragmentActivity) context).get(VideosViewModel.class);
+        mStateHub = new ConnectivityStateHub(context, (LifecycleOwner) context);
+    }
+
     @Override
     public void onBindViewHolder(final ViewHolder viewHolder, Object item) {
         VideoEntity video = (VideoEntity) item;
@@ -118,6 +142,56 @@ public class VideoCardPresenter extends Presenter {
 
         cardView.setBadgeImage(null);
         cardView.setMainImage(null);
+        ((CardViewHolder) viewHolder).mBoundImageModel = null;
+    }
+
+    @Override
+    public void onViewAttachedToWindow(ViewHolder viewHolder) {
+        CardViewHolder cardViewHolder = (CardViewHolder) viewHolder;
+        mStateHub.attach(cardViewHolder);
+        // the state may have changed while the card was detached
+        cardViewHolder.onConnectivityChanged(mStateHub);
+    }
+
+    @Override
+    public void onViewDetachedFromWindow(ViewHolder viewHolder) {
+        mStateHub.detach((CardViewHolder) viewHolder);
+    }
+
+    @Override
+    public Object getPreloadModel(Context context, Object item) {
+        initCardImageOptions(context);
+        return getCardImageModel(context, (VideoEntity) item);
+    }
+
+    @Override
+    public RequestOptions getPreloadOptions(Context context) {
+        initCardImageOptions(context);
+        return mCardImageOptions;
+    }
+
+    private void initCardImageOptions(Context context) {
+        if (mCardImageOptions == null) {
+            Resources resources = context.getResources();
+            mCardWidth = resources.getDimensionPixelSize(R.dimen.card_width);
+            mCardHeight = resources.getDimensionPixelSize(R.dimen.card_height);
+            mCardImageOptions = ImageProfiles.card(mCardWidth, mCardHeight);
+        }
+    }
+
+    /**
+     * @return The local copy of the card art when the video has been downloaded, the remote url
+     * otherwise, or <code>null</code> when the video has no card art.
+     */
+    private String getCardImageModel(Context context, VideoEntity video) {
+        if (video.getCardImageUrl() == null) {
+            return null;
+        }
+        if (!video.getVideoCardImageLocalStorageUrl().isEmpty()) {
+            return video.getVideoCardImageLocalStorageUrl();
+        }
+        return ImageUrlTemplate.getInstance(context)
+                .apply(video.getCardImageUrl(), mCardWidth, mCardHeight);
     }
 
     /**
@@ -128,62 +202,80 @@ public class VideoCardPresenter extends Presenter {
      * @param selected
      */
     private void updateCardBackgroundColor(ImageCardView view, boolean selected) {
-        int color = selected ? sSelectedBackgroundColor : sDefaultBackgroundColor;
+        int color = selected ? mSelectedBackgroundColor : mDefaultBackgroundColor;
 
         view.setBackgroundColor(color);
-        view.findViewById(R.id.info_field).setBackgroundColor(color);
+        ResourceCache.of(view).getViewById(R.id.info_field).setBackgroundColor(color);
+    }
+
+    /**
+     * The state of a popup menu item, kept until the menu is created and shown.
+     */
+    private static final class MenuItemState {
+        final int mId;
+        boolean mVisible = true;
+        boolean mEnabled = true;
+        // null keeps the title from the menu resource
+        String mTitle;
+
+        MenuItemState(int id) {
+            mId = id;
+        }
+
+        void apply(Menu menu) {
+            MenuItem item = menu.findItem(mId);
+            item.setVisible(mVisible);
+            if (mVisible) {
+                item.setEnabled(mEnabled);
+                if (mTitle != null) {
+                    item.setTitle(mTitle);
+                }
+            }
+        }
     }
 
     /**
      * The view holder which will encapsulate all the information related to currently bond video.
      */
     private final class CardViewHolder extends ViewHolder implements
-            View.OnLongClickListener, PopupMenu.OnMenuItemClickListener {
+            View.OnLongClickListener, PopupMenu.OnMenuItemClickListener,
+            ConnectivityStateHub.Listener {
         private VideoEntity mVideo;
         private Context mContext;
+        // created on the first long press
         private PopupMenu mPopupMenu;
-        private FragmentActivity mFragmentActivity;
-        private LifecycleOwner mOwner;
 
-
-        // when glide library cannot fetch data from internet, and there is no local content, it
-        // will be used as place holder
-        private RequestOptions mDefaultPlaceHolder;
-        private Drawable mDefaultBackground;
+        // what the popup menu items show, kept up to date by every bind
+        private final MenuItemState mDownloadItem =
+                new MenuItemState(R.id.download_video_related_resource);
+        private final MenuItemState mRemoveItem =
+                new MenuItemState(R.id.remove_video_related_resource);
 
         private ImageCardView mCardView;
 
-        private VideosViewModel mViewModel;
+        // reused to build the card's texts, and the image the card shows, so rebinding a video
+        // which hasn't changed doesn't allocate
+        private final StringBuilder mTextBuilder = new StringBuilder();
+        private String mBoundImageModel;
 
 
         CardViewHolder(ImageCardView view, Context context) {
             super(view);
             mContext = context;
-            Context wrapper = new ContextThemeWrapper(mContext, R.style.MyPopupMenu);
-            mPopupMenu = new PopupMenu(wrapper, view);
-            mPopupMenu.inflate(R.menu.popup_menu);
-
-            mPopupMenu.setOnMenuItemClickListener(this);
             view.setOnLongClickListener(this);
-
-            mOwner = (LifecycleOwner) mContext;
-
-            mDefaultBackground = mContext.getResources().getDrawable(R.drawable.no_cache_no_internet, null);
-            mDefaultPlaceHolder = new RequestOptions().
-                    placeholder(mDefaultBackground);
-
             mCardView = (ImageCardView) CardViewHolder.this.view;
-            Resources resources = mCardView.getContext().getResources();
-            mCardView.setMainImageDimensions(Math.round(
-                    resources.getDimensionPixelSize(R.dimen.card_width)),
-                    resources.getDimensionPixelSize(R.dimen.card_height));
-
-            mFragmentActivity = (FragmentActivity) context;
-            mViewModel = ViewModelProviders.of(mFragmentActivity).get(VideosViewModel.class);
         }
 
         @Override
         public boolean onLongClick(View v) {
+            if (mPopupMenu == null) {
+                Context wrapper = new ContextThemeWrapper(mContext, R.style.MyPopupMenu);
+                mPopupMenu = new PopupMenu(wrapper, v);
+                mPopupMenu.inflate(R.menu.popup_menu);
+                mPopupMenu.setOnMenuItemClickListener(this);
+            }
+            mDownloadItem.apply(mPopupMenu.getMenu());
+            mRemoveItem.apply(mPopupMenu.getMenu());
             mPopupMenu.show();
             return true;
         }
@@ -232,32 +324,35 @@ public class VideoCardPresenter extends Presenter {
             }
             mVideo = video;
 
-            if (!video.isRented()) {
-                mCardView.setTitleText(video.getTitle());
-            } else {
-                mCardView.setTitleText(video.getTitle() + RENTED);
+            mTextBuilder.setLength(0);
+            mTextBuilder.append(video.getTitle());
+            if (video.isRented()) {
+                mTextBuilder.append(RENTED);
+            }
+            if (!TextUtils.equals(mCardView.getTitleText(), mTextBuilder)) {
+                mCardView.setTitleText(mTextBuilder.toString());
             }
 
+            mTextBuilder.setLength(0);
+            mTextBuilder.append(video.getStudio());
             if (isRemovable()) {
-                mCardView.setContentText(video.getStudio() + DOWNLOADED);
+                mTextBuilder.append(DOWNLOADED);
             } else if (!video.getStatus().isEmpty() && !isDownloadable()) {
-                mCardView.setContentText(video.getStudio() + " (" + video.getStatus() + ")");
-            } else {
-                mCardView.setContentText(video.getStudio());
+                mTextBuilder.append(" (").append(video.getStatus()).append(')');
             }
-
-            String loadedUri;
-            if (!video.getVideoCardImageLocalStorageUrl().isEmpty()) {
-                loadedUri = video.getVideoCardImageLocalStorageUrl();
-            } else {
-                loadedUri = video.getCardImageUrl();
+            if (!TextUtils.equals(mCardView.getContentText(), mTextBuilder)) {
+                mCardView.setContentText(mTextBuilder.toString());
             }
-            if (video.getCardImageUrl() != null) {
+
+            String loadedUri = getCardImageModel(mContext, video);
+            if (loadedUri != null && !loadedUri.equals(mBoundImageModel)) {
                 Glide.with(mCardView.getContext())
                         .load(loadedUri)
                         .apply(mDefaultPlaceHolder)
+                        .listener(RowImagePreloader.BIND_LISTENER)
                         .into(mCardView.getMainImageView());
             }
+            mBoundImageModel = loadedUri;
 
             updatePopMenu(video);
         }
@@ -271,30 +366,7 @@ public class VideoCardPresenter extends Presenter {
         private void updatePopMenu(final VideoEntity videoEntity) {
             if (isDownloadable()) {
                 setInvisible(R.id.remove_video_related_resource);
-
-                PermissionLiveData.get().observe(mOwner, new Observer<Boolean>() {
-                    @Override
-                    public void onChanged(@Nullable Boolean aBoolean) {
-                        if (!aBoolean) {
-                            updatePopupMenuItem(R.id.download_video_related_resource, false,
-                                    DOWNLOAD_VIDEO_NO_PERMISSION);
-                            return;
-                        }
-                    }
-                });
-
-                NetworkLiveData.sync(mContext).observe(mOwner, new Observer<Boolean>() {
-                    @Override
-                    public void onChanged(@Nullable Boolean isNetworkAvailable) {
-                        if (isNetworkAvailable) {
-                            updatePopupMenuItem(R.id.download_video_related_resource, true,
-                                    DOWNLOAD_VIDEO);
-                        } else {
-                            updatePopupMenuItem(R.id.download_video_related_resource, false,
-                                    DOWNLOAD_VIDEO_NO_NETWORK);
-                        }
-                    }
-                });
+                updateDownloadItem(mStateHub);
             } else if (isRemovable()) {
                 updatePopupMenuItem(R.id.remove_video_related_resource, true, REMOVE_LOCAL_VIDEO);
                 setInvisible(R.id.download_video_related_resource);
@@ -305,12 +377,52 @@ public class VideoCardPresenter extends Presenter {
             }
         }
 
+        @Override
+        public void onConnectivityChanged(ConnectivityStateHub hub) {
+            if (mVideo != null && isDownloadable()) {
+                updateDownloadItem(hub);
+            }
+        }
+
+        /**
+         * Enables the download item when the permission hasn't been denied and the network is
+         * available. Keeps the item as it is while the network status isn't known yet.
+         */
+        private void updateDownloadItem(ConnectivityStateHub hub) {
+            if (Boolean.FALSE.equals(hub.isPermissionGranted())) {
+                updatePopupMenuItem(R.id.download_video_related_resource, false,
+                        DOWNLOAD_VIDEO_NO_PERMISSION);
+            } else if (Boolean.TRUE.equals(hub.isNetworkAvailable())) {
+                updatePopupMenuItem(R.id.download_video_related_resource, true, DOWNLOAD_VIDEO);
+            } else if (Boolean.FALSE.equals(hub.isNetworkAvailable())) {
+                updatePopupMenuItem(R.id.download_video_related_resource, false,
+                        DOWNLOAD_VIDEO_NO_NETWORK);
+            }
+        }
+
         private void updatePopupMenuItem(int id, boolean enabled, String title) {
-            mPopupMenu.getMenu().findItem(id).setVisible(true).setTitle(title).setEnabled(enabled);
+            MenuItemState item = getMenuItemState(id);
+            item.mVisible = true;
+            item.mEnabled = enabled;
+            item.mTitle = title;
+            applyToPopupMenu(item);
         }
 
         private void setInvisible(int id) {
-            mPopupMenu.getMenu().findItem(id).setVisible(false);
+            MenuItemState item = getMenuItemState(id);
+            item.mVisible = false;
+            applyToPopupMenu(item);
+        }
+
+        private MenuItemState getMenuItemState(int id) {
+            return id == mDownloadItem.mId ? mDownloadItem : mRemoveItem;
+        }
+
+        private void applyToPopupMenu(MenuItemState item) {
+            // the menu may be showing while the video or the network status changes
+            if (mPopupMenu != null) {
+                item.apply(mPopupMenu.getMenu());
+            }
         }
 
 
@@ -34,10 +34,10 @@ import android.support.media.tv.ChannelLogoUtils;
 import android.support.media.tv.PreviewProgram;
 import android.support.media.tv.TvContractCompat;
 import android.support.v17.leanback.supportleanbackshowcase.R;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.utils.PrecompiledRawModels;
 import android.util.Log;
 
-import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 
 import java.util.ArrayList;
@@ -48,26 +48,27 @@ import java.util.Map;
 /**
  * This class is mainly used for the channel which has been added to the main-screen
  */
+@GenerateTypeAdapter
 public final class ChannelContents {
 
     /**
      * All video resource inside this channel
      */
     @SerializedName("videos")
-    private List<VideoContent> mVideos;
+    List<VideoContent> mVideos;
 
     /**
      * A unique ID for different channels
      * This is channel is mainly for internal use, and won't be changed
      */
     @SerializedName("channelId")
-    private String mChannelContentsId;
+    String mChannelContentsId;
 
     /**
      * The channel name shown in the main screen after adding it
      */
     @SerializedName("category")
-    private String mName;
+    String mName;
 
     /**
      * The channel's description shown in the main screen after adding it
@@ -134,13 +135,10 @@ public final class ChannelContents {
         if (sChannelContents == null) {
 
             sChannelContents = new ArrayList<>();
-            String json = Utils.inputStreamToString(
-                    context.getResources().openRawResource(R.raw.movie));
-
             /**
-             * Populate playlist from json file
+             * Populate playlist from res/raw/movie.json, compiled into java code at build time
              */
-            ChannelContents[] channels = new Gson().fromJson(json, ChannelContents[].class);
+            ChannelContents[] channels = PrecompiledRawModels.movie();
             for (int i = 0; i < channels.length; i++) {
                 sChannelContents.add(channels[i]);
             }
@@ -17,7 +17,6 @@
 package android.support.v17.leanback.supportleanbackshowcase.app.rows;
 
 import android.content.Intent;
-import android.graphics.drawable.Drawable;
 import android.os.Build;
 import android.os.Bundle;
 import android.os.Handler;
@@ -28,12 +27,13 @@ import android.support.v17.leanback.supportleanbackshowcase.app.media.VideoExamp
 import android.support.v17.leanback.supportleanbackshowcase.cards.presenters.IconCardInChannelPublishPresenter;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
+import android.support.v17.leanback.supportleanbackshowcase.utils.BackgroundArtLoader;
 import android.support.v17.leanback.supportleanbackshowcase.utils.CardListRow;
-import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
+import android.support.v17.leanback.supportleanbackshowcase.utils.PreloadingListRowPresenter;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RawModelCache;
 import android.support.v17.leanback.widget.ArrayObjectAdapter;
 import android.support.v17.leanback.widget.HeaderItem;
 import android.support.v17.leanback.widget.ListRow;
-import android.support.v17.leanback.widget.ListRowPresenter;
 import android.support.v17.leanback.widget.OnItemViewClickedListener;
 import android.support.v17.leanback.widget.OnItemViewSelectedListener;
 import android.support.v17.leanback.widget.Presenter;
@@ -43,11 +43,6 @@ import android.util.DisplayMetrics;
 import android.view.View;
 import android.widget.Toast;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.target.SimpleTarget;
-import com.bumptech.glide.request.transition.Transition;
-import com.google.gson.Gson;
-
 import java.net.URI;
 import java.util.List;
 
@@ -113,6 +108,8 @@ public class DynamicRowsFragment extends BrowseFragment {
             public void run() {
                 if (mBackgroundURI != null) {
                     updateBackgroundImage(mBackgroundURI.toString());
+                } else {
+                    showDefaultBackground();
                 }
             }
         };
@@ -128,7 +125,7 @@ public class DynamicRowsFragment extends BrowseFragment {
      * Populate card/ adding-removing button into ArrayObjectAdapter
      */
     private void loadRows() {
-        ArrayObjectAdapter rowsAdapter = new ArrayObjectAdapter(new ListRowPresenter());
+        final ArrayObjectAdapter rowsAdapter = new ArrayObjectAdapter(new PreloadingListRowPresenter());
         for (int i = 0; i < mChannelContents.size(); i++) {
             ChannelContents playlist = mChannelContents.get(i);
             List<VideoContent> clips = playlist.getVideos();
@@ -140,24 +137,30 @@ public class DynamicRowsFragment extends BrowseFragment {
             rowsAdapter.add(new ListRow(header, listRowAdapter));
         }
 
+        setAdapter(rowsAdapter);
+
         /**
          * Add an additional settings row at the bottom for channel publish customization
          */
-        String json = Utils
-                .inputStreamToString(getResources().openRawResource(R.raw.settings_row));
-        CardRow settingsRow = new Gson().fromJson(json, CardRow.class);
-        /**
-         * Set specialized icon presenter to current row
-         */
-        ArrayObjectAdapter listRowAdapter =
-                new ArrayObjectAdapter(new IconCardInChannelPublishPresenter(getActivity()));
-        for (Card card : settingsRow.getCards()) {
-            listRowAdapter.add(card);
-        }
-        HeaderItem settingRowHeader = new HeaderItem(settingsRow.getTitle());
-        Row settingCardRow = new CardListRow(settingRowHeader, listRowAdapter, settingsRow);
-        rowsAdapter.add(settingCardRow);
-        setAdapter(rowsAdapter);
+        RawModelCache.getInstance(getActivity()).load(R.raw.settings_row, CardRow.class,
+                new RawModelCache.Callback<CardRow>() {
+                    @Override
+                    public void onModelReady(CardRow settingsRow) {
+                        if (!isAdded()) return;
+                        /**
+                         * Set specialized icon presenter to current row
+                         */
+                        ArrayObjectAdapter listRowAdapter = new ArrayObjectAdapter(
+                                new IconCardInChannelPublishPresenter(getActivity()));
+                        for (Card card : settingsRow.getCards()) {
+                            listRowAdapter.add(card);
+                        }
+                        HeaderItem settingRowHeader = new HeaderItem(settingsRow.getTitle());
+                        Row settingCardRow = new CardListRow(settingRowHeader, listRowAdapter,
+                                settingsRow);
+                        rowsAdapter.add(settingCardRow);
+                    }
+                });
     }
 
     /**
@@ -197,6 +200,18 @@ public class DynamicRowsFragment extends BrowseFragment {
                                    RowPresenter.ViewHolder rowViewHolder, Row row) {
             if (item instanceof VideoContent) {
                 mBackgroundURI = ((VideoContent) item).getBackgroundImageURI();
+                // warm up the backgrounds of the neighbours while the selection settles
+                BackgroundArtLoader.getInstance(getActivity()).prefetchNeighbours(rowViewHolder,
+                        row, new BackgroundArtLoader.UrlResolver() {
+                            @Override
+                            public String getBackgroundUrl(Object neighbour) {
+                                if (!(neighbour instanceof VideoContent)) {
+                                    return null;
+                                }
+                                URI uri = ((VideoContent) neighbour).getBackgroundImageURI();
+                                return uri != null ? uri.toString() : null;
+                            }
+                        });
                 startBackgroundTimer();
             } else {
                 /**
@@ -204,7 +219,7 @@ public class DynamicRowsFragment extends BrowseFragment {
                  * seen clearly
                  */
                 mHandler.removeCallbacks(mBackgroudUpdateRunnable);
-                mBackgroundManager.setDrawable(null);
+                showDefaultBackground();
             }
         }
     }
@@ -226,20 +241,15 @@ public class DynamicRowsFragment extends BrowseFragment {
     }
 
     protected void updateBackgroundImage(String uri) {
-        int width = mMetrics.widthPixels;
-        int height = mMetrics.heightPixels;
-        Glide.with(getActivity())
-                .load(uri)
-                .into(new SimpleTarget<Drawable>(width, height) {
-                    @Override
-                    public void onResourceReady(Drawable resource,
-                                                Transition<? super Drawable> glideAnimation) {
-                        mBackgroundManager.setDrawable(resource);
-                    }
-                });
+        BackgroundArtLoader.getInstance(getActivity()).show(mBackgroundManager, uri);
         mHandler.removeCallbacks(mBackgroudUpdateRunnable);
     }
 
+    private void showDefaultBackground() {
+        BackgroundArtLoader.getInstance(getActivity()).cancel(mBackgroundManager);
+        mBackgroundManager.setDrawable(null);
+    }
+
     private void startBackgroundTimer() {
         mHandler.removeCallbacks(mBackgroudUpdateRunnable);
         mHandler.postDelayed(mBackgroudUpdateRunnable, BACKGROUND_UPDATE_DELAY);
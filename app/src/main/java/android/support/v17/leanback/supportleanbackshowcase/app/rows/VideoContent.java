@@ -19,6 +19,7 @@ package android.support.v17.leanback.supportleanbackshowcase.app.rows;
 import android.os.Parcel;
 import android.os.Parcelable;
 import android.support.media.tv.TvContractCompat;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
 
 import com.google.gson.annotations.SerializedName;
 
@@ -30,48 +31,49 @@ import java.net.URISyntaxException;
  * <p>
  * Parcelable interface has been implemented, so it can be passed between different components
  */
+@GenerateTypeAdapter
 public class VideoContent implements Parcelable {
 
     /**
      * The description of this video
      */
-    @SerializedName("description") private String mDescription;
+    @SerializedName("description") String mDescription;
 
     /**
      * The url of video
      */
-    @SerializedName("source") private String mVideoUrl;
+    @SerializedName("source") String mVideoUrl;
 
     /**
      * The url of preview video
      */
-    @SerializedName("preview") private String mPreviewVideoUrl;
+    @SerializedName("preview") String mPreviewVideoUrl;
 
     /**
      * The category (Used as the name for the channel which contains this video)
      */
-    @SerializedName("category") private String mCategory;
+    @SerializedName("category") String mCategory;
 
     /**
      * The title of this video
      */
-    @SerializedName("title") private String mTitle;
+    @SerializedName("title") String mTitle;
 
     /**
      * This ID is basically for internal use, each video will have a unique ID associated with it
      * So different component in the application can use it to locate the unique video resource.
      */
-    @SerializedName("videoId") private String mVideoId;
+    @SerializedName("videoId") String mVideoId;
 
     /**
      * The url of the image shown on the card
      */
-    @SerializedName("card") private String mCardImageUrl;
+    @SerializedName("card") String mCardImageUrl;
 
     /**
      * The background image url
      */
-    @SerializedName("background") private String mBgImageUrl;
+    @SerializedName("background") String mBgImageUrl;
 
     /**
      * width/ height ratio for the card in the channel which has been added to main screen.
@@ -154,6 +156,10 @@ public class VideoContent implements Parcelable {
         dest.writeLong(mProgramId);
     }
 
+    public VideoContent() {
+        // no op, used when the content is decoded from json
+    }
+
     // Constructor to construct video content from parcel
     private VideoContent(Parcel in) {
         mVideoId = in.readString();
@@ -19,27 +19,37 @@ package android.support.v17.leanback.supportleanbackshowcase.app.rows;
 import android.content.Context;
 import android.content.res.Resources;
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImagePreloadProvider;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageUrlTemplate;
+import android.support.v17.leanback.supportleanbackshowcase.utils.RowImagePreloader;
 import android.support.v17.leanback.widget.ImageCardView;
 import android.support.v17.leanback.widget.Presenter;
 import android.support.v4.content.ContextCompat;
 import android.view.ViewGroup;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
 
 /**
  * A specialized VideoContentCardPresenter to generate Views and bind Objects to them on demand.
  * <p>
  * It will change background color/ card image accordingly
  */
-public class VideoContentCardPresenter extends Presenter {
+public class VideoContentCardPresenter extends Presenter implements ImagePreloadProvider {
     private static int sSelectedBackgroundColor;
     private static int sDefaultBackgroundColor;
 
+    private int mCardWidth;
+    private int mCardHeight;
+    private RequestOptions mCardImageOptions;
+
     @Override
     public ViewHolder onCreateViewHolder(ViewGroup parent) {
         Context context = parent.getContext();
         sDefaultBackgroundColor = ContextCompat.getColor(context, R.color.default_background);
         sSelectedBackgroundColor = ContextCompat.getColor(context, R.color.selected_background);
+        initCardImageOptions(context);
 
         ImageCardView cardView = new ImageCardView(parent.getContext()) {
             @Override
@@ -68,15 +78,13 @@ public class VideoContentCardPresenter extends Presenter {
         VideoContent clip = (VideoContent) item;
         if (clip.getCardImageUrl() != null) {
             ImageCardView cardView = (ImageCardView) viewHolder.view;
-            Resources resources = cardView.getContext().getResources();
             cardView.setTitleText(clip.getTitle());
             cardView.setContentText(clip.getDescription());
-            int cardWidth = Math.round(resources.getDimensionPixelSize(R.dimen.card_width)
-            );
-            int cardHeight = resources.getDimensionPixelSize(R.dimen.card_height);
-            cardView.setMainImageDimensions(cardWidth, cardHeight);
+            cardView.setMainImageDimensions(mCardWidth, mCardHeight);
             Glide.with(viewHolder.view.getContext())
-                    .load(clip.getCardImageUrl())
+                    .load(getPreloadModel(cardView.getContext(), clip))
+                    .apply(mCardImageOptions)
+                    .listener(RowImagePreloader.BIND_LISTENER)
                     .into(cardView.getMainImageView());
         }
     }
@@ -87,4 +95,26 @@ public class VideoContentCardPresenter extends Presenter {
         cardView.setBadgeImage(null);
         cardView.setMainImage(null);
     }
+
+    @Override
+    public Object getPreloadModel(Context context, Object item) {
+        initCardImageOptions(context);
+        return ImageUrlTemplate.getInstance(context)
+                .apply(((VideoContent) item).getCardImageUrl(), mCardWidth, mCardHeight);
+    }
+
+    @Override
+    public RequestOptions getPreloadOptions(Context context) {
+        initCardImageOptions(context);
+        return mCardImageOptions;
+    }
+
+    private void initCardImageOptions(Context context) {
+        if (mCardImageOptions == null) {
+            Resources resources = context.getResources();
+            mCardWidth = resources.getDimensionPixelSize(R.dimen.card_width);
+            mCardHeight = resources.getDimensionPixelSize(R.dimen.card_height);
+            mCardImageOptions = ImageProfiles.card(mCardWidth, mCardHeight);
+        }
+    }
 }
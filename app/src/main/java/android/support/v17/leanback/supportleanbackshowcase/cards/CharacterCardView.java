@@ -15,13 +15,11 @@
 package android.support.v17.leanback.supportleanbackshowcase.cards;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.utils.AvatarLoader;
+import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.support.v17.leanback.widget.BaseCardView;
-import android.support.v4.graphics.drawable.RoundedBitmapDrawable;
-import android.support.v4.graphics.drawable.RoundedBitmapDrawableFactory;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.widget.ImageView;
@@ -29,20 +27,24 @@ import android.widget.TextView;
 
 public class CharacterCardView extends BaseCardView {
 
+    private final TextView mPrimaryText;
+    private final ImageView mImageView;
+
     public CharacterCardView(Context context) {
         super(context, null, R.style.CharacterCardStyle);
         LayoutInflater.from(getContext()).inflate(R.layout.character_card, this);
+        mPrimaryText = (TextView) findViewById(R.id.primary_text);
+        mImageView = (ImageView) findViewById(R.id.main_image);
+        final View container = findViewById(R.id.container);
         setOnFocusChangeListener(new View.OnFocusChangeListener() {
             @Override
             public void onFocusChange(View v, boolean hasFocus) {
-                ImageView mainImage = (ImageView) findViewById(R.id.main_image);
-                View container = findViewById(R.id.container);
                 if (hasFocus) {
                     container.setBackgroundResource(R.drawable.character_focused);
-                    mainImage.setBackgroundResource(R.drawable.character_focused);
+                    mImageView.setBackgroundResource(R.drawable.character_focused);
                 } else {
                     container.setBackgroundResource(R.drawable.character_not_focused_padding);
-                    mainImage.setBackgroundResource(R.drawable.character_not_focused);
+                    mImageView.setBackgroundResource(R.drawable.character_not_focused);
                 }
             }
         });
@@ -50,18 +52,13 @@ public class CharacterCardView extends BaseCardView {
     }
 
     public void updateUi(Card card) {
-        TextView primaryText = (TextView) findViewById(R.id.primary_text);
-        final ImageView imageView = (ImageView) findViewById(R.id.main_image);
-
-        primaryText.setText(card.getTitle());
+        Utils.setTextIfChanged(mPrimaryText, card.getTitle());
         if (card.getLocalImageResourceName() != null) {
-            int resourceId = card.getLocalImageResourceId(getContext());
-            Bitmap bitmap = BitmapFactory
-                    .decodeResource(getContext().getResources(), resourceId);
-            RoundedBitmapDrawable drawable = RoundedBitmapDrawableFactory.create(getContext().getResources(), bitmap);
-            drawable.setAntiAlias(true);
-            drawable.setCornerRadius(Math.max(bitmap.getWidth(), bitmap.getHeight()) / 2.0f);
-            imageView.setImageDrawable(drawable);
+            // decoded off the main thread and made round once, then reused for every bind
+            int resourceId = card.getLocalImageResourceId();
+            AvatarLoader.getInstance(getContext()).load(resourceId, mImageView);
+        } else {
+            AvatarLoader.getInstance(getContext()).cancel(mImageView);
         }
     }
 
@@ -15,42 +15,41 @@
 package android.support.v17.leanback.supportleanbackshowcase.cards;
 
 import android.content.Context;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.utils.AvatarLoader;
+import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.support.v17.leanback.widget.BaseCardView;
-import android.support.v4.graphics.drawable.RoundedBitmapDrawable;
-import android.support.v4.graphics.drawable.RoundedBitmapDrawableFactory;
 import android.view.LayoutInflater;
 import android.widget.ImageView;
 import android.widget.TextView;
 
 public class TextCardView extends BaseCardView {
 
+    private final TextView mExtraText;
+    private final TextView mPrimaryText;
+    private final ImageView mImageView;
+
     public TextCardView(Context context) {
         super(context, null, R.style.TextCardStyle);
         LayoutInflater.from(getContext()).inflate(R.layout.text_icon_card, this);
+        mExtraText = (TextView) findViewById(R.id.extra_text);
+        mPrimaryText = (TextView) findViewById(R.id.primary_text);
+        mImageView = (ImageView) findViewById(R.id.main_image);
         setFocusable(true);
     }
 
     public void updateUi(Card card) {
-        TextView extraText = (TextView) findViewById(R.id.extra_text);
-        TextView primaryText = (TextView) findViewById(R.id.primary_text);
-        final ImageView imageView = (ImageView) findViewById(R.id.main_image);
-
-        extraText.setText(card.getExtraText());
-        primaryText.setText(card.getTitle());
-
-        // Create a rounded drawable.
-        int resourceId = card.getLocalImageResourceId(getContext());
-        Bitmap bitmap = BitmapFactory
-                .decodeResource(getContext().getResources(), resourceId);
-        RoundedBitmapDrawable drawable = RoundedBitmapDrawableFactory.create(getContext().getResources(), bitmap);
-        drawable.setAntiAlias(true);
-        drawable.setCornerRadius(
-                Math.max(bitmap.getWidth(), bitmap.getHeight()) / 2.0f);
-        imageView.setImageDrawable(drawable);
+        Utils.setTextIfChanged(mExtraText, card.getExtraText());
+        Utils.setTextIfChanged(mPrimaryText, card.getTitle());
+
+        if (card.getLocalImageResourceName() != null) {
+            // decoded off the main thread and made round once, then reused for every bind
+            AvatarLoader.getInstance(getContext())
+                    .load(card.getLocalImageResourceId(), mImageView);
+        } else {
+            AvatarLoader.getInstance(getContext()).cancel(mImageView);
+        }
     }
 
 }
@@ -14,28 +14,66 @@
 package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
 
 import android.content.Context;
+import android.content.ContextWrapper;
+import android.os.Looper;
+import android.os.MessageQueue;
+import android.os.Process;
+import android.support.annotation.IdRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.WorkerThread;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceCache;
 import android.support.v17.leanback.widget.BaseCardView;
 import android.support.v17.leanback.widget.Presenter;
+import android.util.Log;
+import android.view.LayoutInflater;
 import android.view.ViewGroup;
 
+import java.util.ArrayDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
 /**
  * This abstract, generic class will create and manage the
  * ViewHolder and will provide typed Presenter callbacks such that you do not have to perform casts
  * on your own.
  *
+ * Every ViewHolder gets a {@link ResourceCache} holding the children whose ids are passed to the
+ * constructor, looked up once when the ViewHolder is created. Binds get them through
+ * {@link #getViews(BaseCardView)} instead of calling findViewById.
+ *
+ * Card views can be built ahead of time with {@link #preInflate(int)}. They are created on a
+ * background thread once the main thread is idle, and handed out by onCreateViewHolder before any
+ * new view is created on the main thread. Views which are still unused when the screen goes away
+ * are dropped with {@link #releasePreInflated()}. Card views are built with a LayoutInflater
+ * cloned from the application's, which unlike the activity's has no factories installed and can
+ * be used off the main thread.
+ *
  * @param <T> View type for the card.
  */
 public abstract class AbstractCardPresenter<T extends BaseCardView> extends Presenter {
 
     private static final String TAG = "AbstractCardPresenter";
+
+    // shared by all presenters, so pre-inflation never takes more than one core
+    private static final ExecutorService sPreInflateExecutor =
+            Executors.newSingleThreadExecutor();
+
     private final Context mContext;
+    private final int[] mChildViewIds;
+
+    // guarded by itself
+    private final ArrayDeque<T> mPreInflated = new ArrayDeque<>();
+    // bumped by releasePreInflated() so pending pre-inflation is dropped, guarded by mPreInflated
+    private int mPreInflateGeneration;
 
     /**
      * @param context The current context.
+     * @param childViewIds The ids of the children the presenter binds.
      */
-    public AbstractCardPresenter(Context context) {
-        mContext = context;
+    public AbstractCardPresenter(Context context, @IdRes int... childViewIds) {
+        mContext = new InflationContext(context);
+        mChildViewIds = childViewIds;
     }
 
     public Context getContext() {
@@ -43,10 +81,88 @@ public abstract class AbstractCardPresenter<T extends BaseCardView> extends Pres
     }
 
     @Override public final ViewHolder onCreateViewHolder(ViewGroup parent) {
-        T cardView = onCreateView();
+        T cardView;
+        synchronized (mPreInflated) {
+            cardView = mPreInflated.poll();
+        }
+        if (cardView == null) {
+            cardView = createCardView();
+        }
         return new ViewHolder(cardView);
     }
 
+    private T createCardView() {
+        T cardView = onCreateView();
+        ResourceCache.attach(cardView, mChildViewIds);
+        return cardView;
+    }
+
+    /**
+     * Builds the given number of card views on a background thread, starting once the main
+     * thread is idle. If a view can't be built off the main thread, the remaining views are
+     * created on demand as usual.
+     */
+    @MainThread
+    public void preInflate(final int count) {
+        if (count <= 0) {
+            return;
+        }
+        final int generation;
+        synchronized (mPreInflated) {
+            generation = mPreInflateGeneration;
+        }
+        Looper.myQueue().addIdleHandler(new MessageQueue.IdleHandler() {
+            @Override
+            public boolean queueIdle() {
+                sPreInflateExecutor.execute(new Runnable() {
+                    @Override
+                    public void run() {
+                        Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                        preInflateNow(count, generation);
+                    }
+                });
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Drops the views built ahead of time which haven't been used yet, along with the ones still
+     * waiting to be built. Call it when the screen using the presenter destroys its views.
+     */
+    @MainThread
+    public void releasePreInflated() {
+        synchronized (mPreInflated) {
+            mPreInflateGeneration++;
+            mPreInflated.clear();
+        }
+    }
+
+    @WorkerThread
+    private void preInflateNow(int count, int generation) {
+        for (int i = 0; i < count; i++) {
+            synchronized (mPreInflated) {
+                if (generation != mPreInflateGeneration) {
+                    return;
+                }
+            }
+            T cardView;
+            try {
+                cardView = createCardView();
+            } catch (RuntimeException e) {
+                Log.w(TAG, "Cannot build " + getClass().getSimpleName()
+                        + " views off the main thread", e);
+                return;
+            }
+            synchronized (mPreInflated) {
+                if (generation != mPreInflateGeneration) {
+                    return;
+                }
+                mPreInflated.add(cardView);
+            }
+        }
+    }
+
     @Override public final void onBindViewHolder(ViewHolder viewHolder, Object item) {
         Card card = (Card) item;
         onBindViewHolder(card, (T) viewHolder.view);
@@ -56,6 +172,13 @@ public abstract class AbstractCardPresenter<T extends BaseCardView> extends Pres
         onUnbindViewHolder((T) viewHolder.view);
     }
 
+    /**
+     * @return The children of the card view, looked up when its ViewHolder was created.
+     */
+    protected ResourceCache getViews(T cardView) {
+        return ResourceCache.of(cardView);
+    }
+
     public void onUnbindViewHolder(T cardView) {
         // Nothing to clean up. Override if necessary.
     }
@@ -76,4 +199,31 @@ public abstract class AbstractCardPresenter<T extends BaseCardView> extends Pres
      */
     public abstract void onBindViewHolder(Card card, T cardView);
 
+    /**
+     * Hands out a LayoutInflater cloned from the application's instead of the one of the context
+     * it wraps, themes and resources still come from the wrapped context.
+     */
+    private static final class InflationContext extends ContextWrapper {
+
+        // guarded by this, views may be built on the main thread and the pre-inflation thread
+        private LayoutInflater mInflater;
+
+        InflationContext(Context base) {
+            super(base);
+        }
+
+        @Override
+        public Object getSystemService(String name) {
+            if (LAYOUT_INFLATER_SERVICE.equals(name)) {
+                synchronized (this) {
+                    if (mInflater == null) {
+                        mInflater = LayoutInflater.from(getApplicationContext())
+                                .cloneInContext(this);
+                    }
+                    return mInflater;
+                }
+            }
+            return super.getSystemService(name);
+        }
+    }
 }
@@ -16,20 +16,36 @@
 package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
 
 import android.content.Context;
+import android.support.annotation.MainThread;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
+import android.support.v17.leanback.widget.ListRowPresenter;
 import android.support.v17.leanback.widget.Presenter;
 import android.support.v17.leanback.widget.PresenterSelector;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 /**
  * This PresenterSelector will decide what Presenter to use depending on a given card's type.
+ *
+ * A screen should use a single instance for all of its rows. The rows then share one presenter per
+ * card type, and since the rows fragment shares its recycled view pool between all list rows, a
+ * card scrolled out of one row can be reused by any other row showing the same type.
  */
 public class CardPresenterSelector extends PresenterSelector {
 
+    // rows of cards shown at once by a browse screen
+    private static final int VISIBLE_ROWS = 2;
+
     private final Context mContext;
     private final HashMap<Card.Type, Presenter> presenters = new HashMap<Card.Type, Presenter>();
+    // row presenters whose recycled pools are sized for the card presenters
+    private final List<ListRowPresenter> mRowPresenters = new ArrayList<>();
 
     public CardPresenterSelector(Context context) {
         mContext = context;
@@ -40,10 +56,16 @@ public class CardPresenterSelector extends PresenterSelector {
         if (!(item instanceof Card)) throw new RuntimeException(
                 String.format("The PresenterSelector only supports data items of type '%s'",
                         Card.class.getName()));
-        Card card = (Card) item;
-        Presenter presenter = presenters.get(card.getType());
+        return getPresenter(((Card) item).getType());
+    }
+
+    /**
+     * @return The presenter of the given card type, created on first use.
+     */
+    public Presenter getPresenter(Card.Type type) {
+        Presenter presenter = presenters.get(type);
         if (presenter == null) {
-            switch (card.getType()) {
+            switch (type) {
                 case SINGLE_LINE:
                     presenter = new SingleLineCardPresenter(mContext);
                     break;
@@ -57,15 +79,15 @@ public class CardPresenterSelector extends PresenterSelector {
                 case GRID_SQUARE:
                 case GAME: {
                     int themeResId = R.style.MovieCardSimpleTheme;
-                    if (card.getType() == Card.Type.MOVIE_BASE) {
+                    if (type == Card.Type.MOVIE_BASE) {
                         themeResId = R.style.MovieCardBasicTheme;
-                    } else if (card.getType() == Card.Type.MOVIE_COMPLETE) {
+                    } else if (type == Card.Type.MOVIE_COMPLETE) {
                         themeResId = R.style.MovieCardCompleteTheme;
-                    } else if (card.getType() == Card.Type.SQUARE_BIG) {
+                    } else if (type == Card.Type.SQUARE_BIG) {
                         themeResId = R.style.SquareBigCardTheme;
-                    } else if (card.getType() == Card.Type.GRID_SQUARE) {
+                    } else if (type == Card.Type.GRID_SQUARE) {
                         themeResId = R.style.GridCardTheme;
-                    } else if (card.getType() == Card.Type.GAME) {
+                    } else if (type == Card.Type.GAME) {
                         themeResId = R.style.GameCardTheme;
                     }
                     presenter = new ImageCardViewPresenter(mContext, themeResId);
@@ -87,9 +109,113 @@ public class CardPresenterSelector extends PresenterSelector {
                     presenter = new ImageCardViewPresenter(mContext);
                     break;
             }
+            presenters.put(type, presenter);
+            for (ListRowPresenter rowPresenter : mRowPresenters) {
+                rowPresenter.setRecycledPoolSize(presenter, getRecycledPoolSize(type));
+            }
         }
-        presenters.put(card.getType(), presenter);
         return presenter;
     }
 
+    /**
+     * Builds card views for the given rows ahead of time, off the main thread, so scrolling to a
+     * row doesn't inflate its cards. The rows on screen create their own views when they are laid
+     * out, so only the rows below them are counted. Rows scrolled off the screen hand their views
+     * back to the shared pool, so every type only needs as many views as a single row holds, up
+     * to its recycled pool size.
+     */
+    @MainThread
+    public void preInflate(CardRow... rows) {
+        EnumMap<Card.Type, Integer> demand = new EnumMap<>(Card.Type.class);
+        EnumMap<Card.Type, Integer> counts = new EnumMap<>(Card.Type.class);
+        int rowsWithCards = 0;
+        for (CardRow row : rows) {
+            if (row.getCards() == null || row.getCards().isEmpty()) continue;
+            if (rowsWithCards++ < VISIBLE_ROWS) continue;
+            counts.clear();
+            for (Card card : row.getCards()) {
+                Integer count = counts.get(card.getType());
+                counts.put(card.getType(), count == null ? 1 : count + 1);
+            }
+            for (Map.Entry<Card.Type, Integer> entry : counts.entrySet()) {
+                Integer max = demand.get(entry.getKey());
+                if (max == null || max < entry.getValue()) {
+                    demand.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<Card.Type, Integer> entry : demand.entrySet()) {
+            preInflate(entry.getKey(),
+                    Math.min(entry.getValue(), getRecycledPoolSize(entry.getKey())));
+        }
+    }
+
+    /**
+     * Builds the given number of views of the card type ahead of time, off the main thread.
+     */
+    @MainThread
+    public void preInflate(Card.Type type, int count) {
+        Presenter presenter = getPresenter(type);
+        if (presenter instanceof AbstractCardPresenter) {
+            ((AbstractCardPresenter<?>) presenter).preInflate(count);
+        }
+    }
+
+    /**
+     * Drops the card views built ahead of time which haven't been used yet. Call it when the
+     * screen destroys its views, the presenters may outlive them.
+     */
+    @MainThread
+    public void releasePreInflated() {
+        for (Presenter presenter : presenters.values()) {
+            if (presenter instanceof AbstractCardPresenter) {
+                ((AbstractCardPresenter<?>) presenter).releasePreInflated();
+            }
+        }
+    }
+
+    /**
+     * Sizes the recycled view pool of every card type for the rows presented by the given
+     * presenters. Presenters which don't present list rows are ignored. Card presenters created
+     * later get their size when they are created, which is before any row adds their views to
+     * its pool.
+     */
+    public void applyRecycledPoolSizes(Presenter... rowPresenters) {
+        for (Presenter rowPresenter : rowPresenters) {
+            if (!(rowPresenter instanceof ListRowPresenter)) continue;
+            ListRowPresenter listRowPresenter = (ListRowPresenter) rowPresenter;
+            mRowPresenters.add(listRowPresenter);
+            for (Map.Entry<Card.Type, Presenter> entry : presenters.entrySet()) {
+                listRowPresenter.setRecycledPoolSize(entry.getValue(),
+                        getRecycledPoolSize(entry.getKey()));
+            }
+        }
+    }
+
+    /**
+     * @return How many views of the card type are kept for reuse. The pool is shared by all rows of
+     * a screen, so it only has to hold about as many cards as a row shows, which depends on how
+     * wide the cards are.
+     */
+    private static int getRecycledPoolSize(Card.Type type) {
+        switch (type) {
+            case SIDE_INFO:
+            case SIDE_INFO_TEST_1:
+                return 4;
+            case MOVIE_COMPLETE:
+            case SQUARE_BIG:
+            case TEXT:
+            case VIDEO_GRID:
+                return 6;
+            case ICON:
+            case CHARACTER:
+            case GAME:
+            case GRID_SQUARE:
+            case SQUARE_SMALL:
+                return 10;
+            default:
+                return 8;
+        }
+    }
+
 }
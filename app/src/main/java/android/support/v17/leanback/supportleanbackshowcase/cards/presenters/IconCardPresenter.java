@@ -18,10 +18,13 @@ import android.animation.ObjectAnimator;
 import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
 import android.support.v17.leanback.widget.ImageCardView;
 import android.view.View;
 import android.widget.ImageView;
 
+import com.bumptech.glide.request.RequestOptions;
+
 /**
  * This Presenter will display cards which consists of a single icon which will be highlighted by a
  * surrounding circle when the card is focused. AndroidTV uses these cards for entering settings
@@ -49,6 +52,12 @@ public class IconCardPresenter extends ImageCardViewPresenter {
         return imageCardView;
     }
 
+    @Override
+    protected RequestOptions getImageProfile() {
+        // icons are drawn over the focus highlight and need their transparency
+        return ImageProfiles.LOGO;
+    }
+
     private void animateIconBackground(Drawable drawable, boolean hasFocus) {
         if (hasFocus) {
             ObjectAnimator.ofInt(drawable, "alpha", 0, 255).setDuration(ANIMATION_DURATION).start();
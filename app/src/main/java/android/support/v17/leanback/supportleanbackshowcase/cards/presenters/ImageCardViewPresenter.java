@@ -17,10 +17,13 @@ package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
 import android.content.Context;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
 import android.support.v17.leanback.widget.ImageCardView;
+import android.text.TextUtils;
 import android.view.ContextThemeWrapper;
 
 import com.bumptech.glide.Glide;
+import com.bumptech.glide.request.RequestOptions;
 
 /**
  * A very basic {@link ImageCardView} {@link android.support.v17.leanback.widget.Presenter}.You can
@@ -51,18 +54,43 @@ public class ImageCardViewPresenter extends AbstractCardPresenter<ImageCardView>
 
     @Override
     public void onBindViewHolder(Card card, final ImageCardView cardView) {
+        // a view bound to the same card again keeps its texts and image
+        boolean rebind = cardView.getTag() == card;
         cardView.setTag(card);
-        cardView.setTitleText(card.getTitle());
-        cardView.setContentText(card.getDescription());
+        if (!TextUtils.equals(cardView.getTitleText(), card.getTitle())) {
+            cardView.setTitleText(card.getTitle());
+        }
+        if (!TextUtils.equals(cardView.getContentText(), card.getDescription())) {
+            cardView.setContentText(card.getDescription());
+        }
+        if (!rebind) {
+            loadMainImage(card, cardView);
+        }
+    }
+
+    @Override
+    public void onUnbindViewHolder(ImageCardView cardView) {
+        cardView.setTag(null);
+    }
+
+    /**
+     * Loads the main image of a card into a view which isn't showing it yet.
+     */
+    protected void loadMainImage(Card card, ImageCardView cardView) {
         if (card.getLocalImageResourceName() != null) {
-            int resourceId = getContext().getResources()
-                    .getIdentifier(card.getLocalImageResourceName(),
-                            "drawable", getContext().getPackageName());
             Glide.with(getContext())
                     .asBitmap()
-                    .load(resourceId)
+                    .load(card.getLocalImageResourceId())
+                    .apply(getImageProfile())
                     .into(cardView.getMainImageView());
         }
     }
 
+    /**
+     * @return The {@link ImageProfiles} entry the main image is loaded with.
+     */
+    protected RequestOptions getImageProfile() {
+        return ImageProfiles.CARD;
+    }
+
 }
@@ -17,6 +17,9 @@ package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
 import android.content.Context;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ImageProfiles;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceCache;
+import android.support.v17.leanback.supportleanbackshowcase.utils.Utils;
 import android.support.v17.leanback.widget.BaseCardView;
 import android.view.LayoutInflater;
 import android.view.View;
@@ -34,8 +37,13 @@ import com.bumptech.glide.request.RequestOptions;
  */
 public class SideInfoCardPresenter extends AbstractCardPresenter<BaseCardView> {
 
+    private final RequestOptions mImageOptions;
+
     public SideInfoCardPresenter(Context context) {
-        super(context);
+        super(context, R.id.main_image, R.id.primary_text, R.id.secondary_text, R.id.extra_text);
+        int width = (int) context.getResources().getDimension(R.dimen.sidetext_image_card_width);
+        int height = (int) context.getResources().getDimension(R.dimen.sidetext_image_card_height);
+        mImageOptions = ImageProfiles.CARD.clone().override(width, height);
     }
 
     @Override
@@ -49,32 +57,32 @@ public class SideInfoCardPresenter extends AbstractCardPresenter<BaseCardView> {
 
     @Override
     public void onBindViewHolder(Card card, BaseCardView cardView) {
-        ImageView imageView = (ImageView) cardView.findViewById(R.id.main_image);
-        if (card.getLocalImageResourceName() != null) {
-            int width = (int) getContext().getResources()
-                    .getDimension(R.dimen.sidetext_image_card_width);
-            int height = (int) getContext().getResources()
-                    .getDimension(R.dimen.sidetext_image_card_height);
-            int resourceId = getContext().getResources()
-                    .getIdentifier(card.getLocalImageResourceName(),
-                            "drawable", getContext().getPackageName());
-            RequestOptions myOptions = new RequestOptions()
-                    .override(width, height);
+        ResourceCache views = getViews(cardView);
+
+        // a view bound to the same card again keeps its image
+        if (cardView.getTag() != card && card.getLocalImageResourceName() != null) {
+            ImageView imageView = views.getViewById(R.id.main_image);
             Glide.with(getContext())
                     .asBitmap()
-                    .load(resourceId)
-                    .apply(myOptions)
+                    .load(card.getLocalImageResourceId())
+                    .apply(mImageOptions)
                     .into(imageView);
         }
+        cardView.setTag(card);
 
-        TextView primaryText = (TextView) cardView.findViewById(R.id.primary_text);
-        primaryText.setText(card.getTitle());
+        TextView primaryText = views.getViewById(R.id.primary_text);
+        Utils.setTextIfChanged(primaryText, card.getTitle());
 
-        TextView secondaryText = (TextView) cardView.findViewById(R.id.secondary_text);
-        secondaryText.setText(card.getDescription());
+        TextView secondaryText = views.getViewById(R.id.secondary_text);
+        Utils.setTextIfChanged(secondaryText, card.getDescription());
 
-        TextView extraText = (TextView) cardView.findViewById(R.id.extra_text);
-        extraText.setText(card.getExtraText());
+        TextView extraText = views.getViewById(R.id.extra_text);
+        Utils.setTextIfChanged(extraText, card.getExtraText());
+    }
+
+    @Override
+    public void onUnbindViewHolder(BaseCardView cardView) {
+        cardView.setTag(null);
     }
 
 }
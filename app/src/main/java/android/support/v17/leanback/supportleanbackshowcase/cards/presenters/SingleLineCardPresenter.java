@@ -15,7 +15,6 @@
 package android.support.v17.leanback.supportleanbackshowcase.cards.presenters;
 
 import android.content.Context;
-import android.content.res.TypedArray;
 import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.support.v17.leanback.supportleanbackshowcase.models.Card;
 import android.support.v17.leanback.widget.ImageCardView;
@@ -33,8 +32,6 @@ public class SingleLineCardPresenter extends ImageCardViewPresenter {
 
     @Override public void onBindViewHolder(Card card, ImageCardView cardView) {
         super.onBindViewHolder(card, cardView);
-        TypedArray typedArray = getContext().getTheme().obtainStyledAttributes(R.styleable.lbImageCardView);
-        android.util.Log.d("SHAAN", "lbImageCardViewType ="+typedArray.getInt(R.styleable.lbImageCardView_lbImageCardViewType, -1));
         cardView.setInfoAreaBackgroundColor(card.getFooterColor());
     }
 
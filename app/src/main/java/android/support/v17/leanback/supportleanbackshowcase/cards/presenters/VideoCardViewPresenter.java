@@ -38,12 +38,13 @@ public class VideoCardViewPresenter extends ImageCardViewPresenter {
     }
 
     @Override
-    public void onBindViewHolder(Card card, final ImageCardView cardView) {
-        super.onBindViewHolder(card, cardView);
+    protected void loadMainImage(Card card, ImageCardView cardView) {
+        super.loadMainImage(card, cardView);
         VideoCard videoCard = (VideoCard) card;
         Glide.with(getContext())
                 .asBitmap()
                 .load(videoCard.getImageUrl())
+                .apply(getImageProfile())
                 .into(cardView.getMainImageView());
 
     }
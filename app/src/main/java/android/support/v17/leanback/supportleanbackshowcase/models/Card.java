@@ -14,8 +14,10 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
-import android.content.Context;
 import android.graphics.Color;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.processor.OnDeserialized;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceIndex;
 import android.util.Log;
 
 import com.google.gson.annotations.SerializedName;
@@ -27,14 +29,15 @@ import java.net.URISyntaxException;
  * This is a generic example of a custom data object, containing info we might want to keep with
  * each card on the home screen
  */
+@GenerateTypeAdapter
 public class Card {
 
     @SerializedName("title") private String mTitle = "";
     @SerializedName("description") private String mDescription = "";
     @SerializedName("extraText") private String mExtraText = "";
     @SerializedName("card") private String mImageUrl;
-    @SerializedName("footerColor") private String mFooterColor = null;
-    @SerializedName("selectedColor") private String mSelectedColor = null;
+    @SerializedName("footerColor") String mFooterColor = null;
+    @SerializedName("selectedColor") String mSelectedColor = null;
     @SerializedName("localImageResource") private String mLocalImageResource = null;
     @SerializedName("footerIconLocalImageResource") private String mFooterResource = null;
     @SerializedName("type") private Card.Type mType;
@@ -42,6 +45,11 @@ public class Card {
     @SerializedName("width") private int mWidth;
     @SerializedName("height") private int mHeight;
 
+    // resolved once, when the card is deserialized, so binding a card doesn't parse anything
+    private transient int mLocalImageResourceId;
+    private transient int mFooterColorValue = -1;
+    private transient int mSelectedColorValue = -1;
+
     public String getTitle() {
         return mTitle;
     }
@@ -56,6 +64,18 @@ public class Card {
 
     public void setLocalImageResource(String localImageResource) {
         mLocalImageResource = localImageResource;
+        resolveResources();
+    }
+
+    @OnDeserialized
+    void resolveResources() {
+        mLocalImageResourceId = ResourceIndex.drawable(mLocalImageResource);
+        mFooterColorValue = parseColor(mFooterColor);
+        mSelectedColorValue = parseColor(mSelectedColor);
+    }
+
+    private static int parseColor(String color) {
+        return color == null ? -1 : Color.parseColor(color);
     }
 
     public String getFooterResource() {
@@ -116,17 +136,16 @@ public class Card {
     }
 
     public int getFooterColor() {
-        if (mFooterColor == null) return -1;
-        return Color.parseColor(mFooterColor);
+        return mFooterColorValue;
     }
 
     public void setFooterColor(String footerColor) {
         mFooterColor = footerColor;
+        mFooterColorValue = parseColor(footerColor);
     }
 
     public int getSelectedColor() {
-        if (mSelectedColor == null) return -1;
-        return Color.parseColor(mSelectedColor);
+        return mSelectedColorValue;
     }
 
     public String getImageUrl() {
@@ -135,6 +154,7 @@ public class Card {
 
     public void setSelectedColor(String selectedColor) {
         mSelectedColor = selectedColor;
+        mSelectedColorValue = parseColor(selectedColor);
     }
 
     public void setImageUrl(String imageUrl) {
@@ -151,9 +171,11 @@ public class Card {
         }
     }
 
-    public int getLocalImageResourceId(Context context) {
-        return context.getResources().getIdentifier(getLocalImageResourceName(), "drawable",
-                                                    context.getPackageName());
+    /**
+     * @return The id of the local image, 0 if the card has none.
+     */
+    public int getLocalImageResourceId() {
+        return mLocalImageResourceId;
     }
 
     public String getLocalImageResourceName() {
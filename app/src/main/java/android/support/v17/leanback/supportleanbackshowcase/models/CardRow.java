@@ -14,6 +14,8 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+
 import com.google.gson.annotations.SerializedName;
 
 import java.util.List;
@@ -22,6 +24,7 @@ import java.util.List;
  * This class represents a row of cards. In a real world application you might want to store more
  * data than in this example.
  */
+@GenerateTypeAdapter
 public class CardRow {
 
     // default is a list of cards
@@ -31,11 +34,11 @@ public class CardRow {
     // divider
     public static final int TYPE_DIVIDER = 2;
 
-    @SerializedName("type") private int mType = TYPE_DEFAULT;
+    @SerializedName("type") int mType = TYPE_DEFAULT;
     // Used to determine whether the row shall use shadows when displaying its cards or not.
-    @SerializedName("shadow") private boolean mShadow = true;
-    @SerializedName("title") private String mTitle;
-    @SerializedName("cards") private List<Card> mCards;
+    @SerializedName("shadow") boolean mShadow = true;
+    @SerializedName("title") String mTitle;
+    @SerializedName("cards") List<Card> mCards;
 
     public int getType() {
         return mType;
@@ -15,23 +15,28 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
-import android.content.Context;
-import android.support.v17.leanback.supportleanbackshowcase.models.Card;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.processor.OnDeserialized;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceIndex;
 
 import com.google.gson.annotations.SerializedName;
 
+@GenerateTypeAdapter
 public class DetailedCard {
 
-    @SerializedName("title") private String mTitle = "";
-    @SerializedName("description") private String mDescription = "";
-    @SerializedName("text") private String mText = "";
-    @SerializedName("localImageResource") private String mLocalImageResource = null;
-    @SerializedName("price") private String mPrice = null;
-    @SerializedName("characters") private Card[] mCharacters = null;
-    @SerializedName("recommended") private Card[] mRecommended = null;
-    @SerializedName("year") private int mYear = 0;
-    @SerializedName("trailerUrl") private String mTrailerUrl = null;
-    @SerializedName("videoUrl") private String mVideoUrl = null;
+    @SerializedName("title") String mTitle = "";
+    @SerializedName("description") String mDescription = "";
+    @SerializedName("text") String mText = "";
+    @SerializedName("localImageResource") String mLocalImageResource = null;
+    @SerializedName("price") String mPrice = null;
+    @SerializedName("characters") Card[] mCharacters = null;
+    @SerializedName("recommended") Card[] mRecommended = null;
+    @SerializedName("year") int mYear = 0;
+    @SerializedName("trailerUrl") String mTrailerUrl = null;
+    @SerializedName("videoUrl") String mVideoUrl = null;
+
+    // resolved once, when the card is deserialized
+    private transient int mLocalImageResourceId;
 
 
     public String getPrice() {
@@ -74,8 +79,12 @@ public class DetailedCard {
         return mRecommended;
     }
 
-    public int getLocalImageResourceId(Context context) {
-        return context.getResources()
-                      .getIdentifier(getLocalImageResource(), "drawable", context.getPackageName());
+    public int getLocalImageResourceId() {
+        return mLocalImageResourceId;
+    }
+
+    @OnDeserialized
+    void resolveResources() {
+        mLocalImageResourceId = ResourceIndex.drawable(mLocalImageResource);
     }
 }
@@ -14,22 +14,25 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+
 import com.google.gson.annotations.SerializedName;
 
 import java.io.Serializable;
 
+@GenerateTypeAdapter
 public class Movie implements Serializable {
 
     private static final long serialVersionUID = 133742L;
 
     @SerializedName("title")
-    private String mTitle = "";
+    String mTitle = "";
     @SerializedName("price_hd")
-    private String mPriceHd = "n/a";
+    String mPriceHd = "n/a";
     @SerializedName("price_sd")
-    private String mPriceSd = "n/a";
+    String mPriceSd = "n/a";
     @SerializedName("breadcrump")
-    private String mBreadcrump = "";
+    String mBreadcrump = "";
 
     public String getTitle() {
         return mTitle;
@@ -15,9 +15,11 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
-import android.content.Context;
 import android.graphics.drawable.Drawable;
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+import android.support.v17.leanback.supportleanbackshowcase.processor.OnDeserialized;
+import android.support.v17.leanback.supportleanbackshowcase.utils.ResourceIndex;
 import android.support.v17.leanback.widget.BaseOnItemViewSelectedListener;
 import android.support.v17.leanback.widget.MultiActionsProvider;
 import android.support.v17.leanback.widget.Row;
@@ -31,19 +33,51 @@ import android.widget.TextView;
 import com.google.gson.Gson;
 import com.google.gson.annotations.SerializedName;
 
+@GenerateTypeAdapter
 public class Song implements MultiActionsProvider {
 
     @SerializedName("title") private String mTitle = "";
     @SerializedName("description") private String mDescription = "";
-    @SerializedName("text") private String mText = "";
-    @SerializedName("image") private String mImage = null;
-    @SerializedName("file") private String mFile = null;
+    @SerializedName("text") String mText = "";
+    @SerializedName("image") String mImage = null;
+    @SerializedName("file") String mFile = null;
     @SerializedName("duration") private String mDuration = null;
-    @SerializedName("number") private int mNumber = 0;
+    @SerializedName("number") int mNumber = 0;
     @SerializedName("favorite") private boolean mFavorite = false;
 
+    // resolved once, when the song is deserialized
+    private transient int mImageResourceId;
+    private transient int mFileResourceId;
+
     private MultiAction[] mMediaRowActions;
 
+    public Song() {
+        // no op
+    }
+
+    /**
+     * Copies the data loaded from JSON, including the favorite flag as it was loaded, but not the
+     * row actions, so a screen can decorate and toggle its own copy of a shared song.
+     */
+    public Song(Song song) {
+        mTitle = song.mTitle;
+        mDescription = song.mDescription;
+        mText = song.mText;
+        mImage = song.mImage;
+        mFile = song.mFile;
+        mDuration = song.mDuration;
+        mNumber = song.mNumber;
+        mFavorite = song.mFavorite;
+        mImageResourceId = song.mImageResourceId;
+        mFileResourceId = song.mFileResourceId;
+    }
+
+    @OnDeserialized
+    void resolveResources() {
+        mImageResourceId = ResourceIndex.drawable(mImage);
+        mFileResourceId = ResourceIndex.raw(mFile);
+    }
+
 
     public void setMediaRowActions(MultiAction[] mediaRowActions) {
         mMediaRowActions = mediaRowActions;
@@ -93,14 +127,12 @@ public class Song implements MultiActionsProvider {
         mFavorite = favorite;
     }
 
-    public int getFileResource(Context context) {
-        return context.getResources()
-                .getIdentifier(mFile, "raw", context.getPackageName());
+    public int getFileResource() {
+        return mFileResourceId;
     }
 
-    public int getImageResource(Context context) {
-        return context.getResources()
-                .getIdentifier(mImage, "drawable", context.getPackageName());
+    public int getImageResource() {
+        return mImageResourceId;
     }
 
     @Override
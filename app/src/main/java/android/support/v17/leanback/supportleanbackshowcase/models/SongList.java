@@ -14,15 +14,18 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
+
 import com.google.gson.annotations.SerializedName;
 
 import java.util.List;
 
 /**
  */
+@GenerateTypeAdapter
 public class SongList {
 
-    @SerializedName("songs") private List<Song> mSongs;
+    @SerializedName("songs") List<Song> mSongs;
 
     public List<Song> getSongs() {
         return mSongs;
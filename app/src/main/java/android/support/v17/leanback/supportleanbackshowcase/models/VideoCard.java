@@ -21,15 +21,17 @@ import java.io.Serializable;
 import java.util.List;
 
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
 
 /**
  * The video card data structure used to hold the fields of each video card fetched from the
  * url: {@link R.string.videos_url}
  */
+@GenerateTypeAdapter
 public class VideoCard extends Card {
 
     @SerializedName("sources") private List<String> mVideoSources = null;
-    @SerializedName("background") private String mBackgroundUrl = "";
+    @SerializedName("background") String mBackgroundUrl = "";
     @SerializedName("studio") private String mStudio = "";
 
     public VideoCard() {
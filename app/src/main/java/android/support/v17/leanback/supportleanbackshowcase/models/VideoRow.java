@@ -15,6 +15,7 @@
 package android.support.v17.leanback.supportleanbackshowcase.models;
 
 import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateTypeAdapter;
 
 import com.google.gson.annotations.SerializedName;
 
@@ -24,6 +25,7 @@ import java.util.List;
  * This class represents a row of Video cards fetched from the
  * url: {@link R.string.videos_url}
  */
+@GenerateTypeAdapter
 public class VideoRow {
     @SerializedName("category") private String mCategory = "";
     @SerializedName("videos") private List<VideoCard> mVideos;
@@ -0,0 +1,228 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.graphics.drawable.BitmapDrawable;
+import android.graphics.drawable.Drawable;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.DrawableRes;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.WorkerThread;
+import android.support.v4.util.LongSparseArray;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+import android.widget.ImageView;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Loads round avatars from drawable resources into ImageViews.
+ *
+ * Avatars are decoded on a background thread at the size of the ImageView, made round once and
+ * cached by resource id and size, so binding a view to an avatar which has been shown before at
+ * that size never decodes anything, and binding a view to the avatar it already shows allocates
+ * nothing. Views waiting for an avatar are cleared until it is ready. Must be used from the main
+ * thread.
+ */
+public class AvatarLoader {
+
+    private static final String TAG = "AvatarLoader";
+    private static final int CACHE_BYTES = 8 * 1024 * 1024;
+
+    private static AvatarLoader sInstance;
+
+    private final Resources mResources;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+    // every size of an avatar is an entry of its own
+    private final LruCache<Long, Bitmap> mCache = new LruCache<Long, Bitmap>(CACHE_BYTES) {
+        @Override
+        protected int sizeOf(Long key, Bitmap value) {
+            return value.getAllocationByteCount();
+        }
+    };
+
+    // avatars being decoded, and the avatar each view waits for
+    private final Set<Long> mPending = new HashSet<>();
+    private final WeakHashMap<ImageView, Long> mWaiting = new WeakHashMap<>();
+
+    // one boxed key per resource id and size, so looking up a cached avatar doesn't allocate
+    private final LongSparseArray<Long> mKeys = new LongSparseArray<>();
+
+    public static synchronized AvatarLoader getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new AvatarLoader(context.getApplicationContext().getResources());
+        }
+        return sInstance;
+    }
+
+    private AvatarLoader(Resources resources) {
+        mResources = resources;
+    }
+
+    /**
+     * Shows the round avatar decoded from the given resource in the view, right away if it is
+     * cached.
+     */
+    @MainThread
+    public void load(@DrawableRes final int resId, ImageView imageView) {
+        final int width = getTargetSize(imageView.getLayoutParams().width, imageView.getWidth());
+        final int height = getTargetSize(imageView.getLayoutParams().height,
+                imageView.getHeight());
+        final Long key = getKey(resId, width, height);
+        Bitmap avatar = mCache.get(key);
+        if (avatar != null) {
+            mWaiting.remove(imageView);
+            if (!isShowing(imageView, avatar)) {
+                imageView.setImageBitmap(avatar);
+            }
+            return;
+        }
+        imageView.setImageDrawable(null);
+        mWaiting.put(imageView, key);
+        if (!mPending.add(key)) {
+            return;
+        }
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                final Bitmap avatar = decodeAvatar(resId, width, height);
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        onDecoded(key, avatar);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops waiting for the avatar previously requested for the view, if any.
+     */
+    @MainThread
+    public void cancel(ImageView imageView) {
+        mWaiting.remove(imageView);
+    }
+
+    private Long getKey(int resId, int width, int height) {
+        // view sizes fit in 16 bits each
+        long id = ((long) resId << 32) | ((long) (width & 0xffff) << 16) | (height & 0xffff);
+        Long key = mKeys.get(id);
+        if (key == null) {
+            key = id;
+            mKeys.put(id, key);
+        }
+        return key;
+    }
+
+    private static boolean isShowing(ImageView imageView, Bitmap avatar) {
+        Drawable drawable = imageView.getDrawable();
+        return drawable instanceof BitmapDrawable
+                && ((BitmapDrawable) drawable).getBitmap() == avatar;
+    }
+
+    private void onDecoded(Long key, @Nullable Bitmap avatar) {
+        mPending.remove(key);
+        if (avatar != null) {
+            mCache.put(key, avatar);
+        }
+        for (Iterator<Map.Entry<ImageView, Long>> it = mWaiting.entrySet().iterator();
+                it.hasNext(); ) {
+            Map.Entry<ImageView, Long> waiting = it.next();
+            if (waiting.getValue().equals(key)) {
+                if (avatar != null) {
+                    waiting.getKey().setImageBitmap(avatar);
+                }
+                it.remove();
+            }
+        }
+    }
+
+    /**
+     * @return The fixed size of the view if it has one, its current size otherwise, or 0 if it
+     * hasn't been laid out yet, in which case the avatar is decoded at its full size.
+     */
+    private static int getTargetSize(int layoutSize, int viewSize) {
+        return layoutSize > 0 ? layoutSize : Math.max(viewSize, 0);
+    }
+
+    @WorkerThread
+    @Nullable
+    private Bitmap decodeAvatar(@DrawableRes int resId, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inScaled = false;
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(mResources, resId, options);
+        if (options.outWidth <= 0 || options.outHeight <= 0) {
+            Log.e(TAG, "Cannot decode avatar " + resId);
+            return null;
+        }
+        if (width <= 0 || height <= 0) {
+            width = options.outWidth;
+            height = options.outHeight;
+        }
+
+        // skip whole pixels while decoding, as long as the result stays larger than the view
+        options.inSampleSize = 1;
+        while (options.outWidth / (options.inSampleSize * 2) >= width
+                && options.outHeight / (options.inSampleSize * 2) >= height) {
+            options.inSampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        Bitmap source = BitmapFactory.decodeResource(mResources, resId, options);
+        if (source == null) {
+            Log.e(TAG, "Cannot decode avatar " + resId);
+            return null;
+        }
+
+        // scale the source to cover the avatar, centered, and clip it to a circle
+        float scale = Math.max((float) width / source.getWidth(),
+                (float) height / source.getHeight());
+        Matrix matrix = new Matrix();
+        matrix.setScale(scale, scale);
+        matrix.postTranslate((width - source.getWidth() * scale) / 2f,
+                (height - source.getHeight() * scale) / 2f);
+        BitmapShader shader =
+                new BitmapShader(source, Shader.TileMode.CLAMP, Shader.TileMode.CLAMP);
+        shader.setLocalMatrix(matrix);
+        Paint paint = new Paint(Paint.ANTI_ALIAS_FLAG | Paint.FILTER_BITMAP_FLAG);
+        paint.setShader(shader);
+
+        Bitmap avatar = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        float radius = Math.max(width, height) / 2f;
+        new Canvas(avatar).drawRoundRect(new RectF(0, 0, width, height), radius, radius, paint);
+        source.recycle();
+        return avatar;
+    }
+}
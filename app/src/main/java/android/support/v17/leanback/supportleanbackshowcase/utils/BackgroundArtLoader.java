@@ -0,0 +1,308 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.BitmapDrawable;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.v17.leanback.app.BackgroundManager;
+import android.support.v17.leanback.widget.ListRow;
+import android.support.v17.leanback.widget.ListRowPresenter;
+import android.support.v17.leanback.widget.ObjectAdapter;
+import android.support.v17.leanback.widget.Row;
+import android.support.v17.leanback.widget.RowPresenter;
+import android.support.v4.util.ArrayMap;
+import android.support.v4.util.LruCache;
+import android.util.DisplayMetrics;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.request.RequestOptions;
+import com.bumptech.glide.request.target.SimpleTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Loads the full screen background art handed to {@link BackgroundManager}.
+ *
+ * Backgrounds are decoded once at the size of the screen and kept in a small cache bounded in
+ * bytes, together with the drawable wrapping them, so moving the focus back and forth between
+ * cards never decodes the same background twice. The backgrounds of the cards next to the
+ * selection can be prefetched at a low priority while the selection settles; prefetches are
+ * cancelled as soon as their card isn't next to the selection anymore. Bitmaps leaving the cache
+ * are handed back to Glide, which reuses their memory for the next decodes; the backgrounds
+ * currently shown by a BackgroundManager are kept until they are replaced.
+ *
+ * All methods must be called on the main thread.
+ */
+public class BackgroundArtLoader {
+
+    /**
+     * Returns the url of the background of an item in a row, <code>null</code> if it has none.
+     */
+    public interface UrlResolver {
+        @Nullable
+        String getBackgroundUrl(Object item);
+    }
+
+    private static final int CACHE_SCREENS = 2;
+    // share of the app's memory class the cache may take at most
+    private static final int CACHE_MEMORY_CLASS_DIVISOR = 8;
+    private static final int PREFETCH_NEIGHBOURS = 1;
+
+    private static final RequestOptions SHOW =
+            new RequestOptions().priority(Priority.HIGH).lock();
+
+    private static BackgroundArtLoader sInstance;
+
+    private final Context mContext;
+    private final RequestManager mRequestManager;
+    private final int mWidth;
+    private final int mHeight;
+    private final LruCache<String, Entry> mCache;
+
+    // decodes in flight, by key
+    private final ArrayMap<String, PendingLoad> mPending = new ArrayMap<>();
+    // the key each BackgroundManager waits for
+    private final WeakHashMap<BackgroundManager, String> mWaiting = new WeakHashMap<>();
+    // the current and the previous background of each BackgroundManager, which may still be
+    // fading out
+    private final WeakHashMap<BackgroundManager, Entry[]> mShown = new WeakHashMap<>();
+    // entries evicted while they were shown
+    private final List<Entry> mDeferredReleases = new ArrayList<>();
+
+    public static synchronized BackgroundArtLoader getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new BackgroundArtLoader(context.getApplicationContext());
+        }
+        return sInstance;
+    }
+
+    private BackgroundArtLoader(Context context) {
+        mContext = context;
+        // not bound to any activity, the cached backgrounds outlive the screens showing them
+        mRequestManager = Glide.with(context);
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        mWidth = metrics.widthPixels;
+        mHeight = metrics.heightPixels;
+        // sized for ARGB_8888 screens, RGB_565 backgrounds take half as much
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        int cacheSize = Math.min(CACHE_SCREENS * mWidth * mHeight * 4,
+                activityManager.getMemoryClass() * 1024 * 1024 / CACHE_MEMORY_CLASS_DIVISOR);
+        mCache = new LruCache<String, Entry>(cacheSize) {
+            @Override
+            protected int sizeOf(String key, Entry entry) {
+                return entry.mBytes;
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, String key, Entry oldValue,
+                    Entry newValue) {
+                if (isShown(oldValue)) {
+                    mDeferredReleases.add(oldValue);
+                } else {
+                    oldValue.release();
+                }
+            }
+        };
+    }
+
+    /**
+     * Shows the background in the given BackgroundManager, right away if it is cached, as soon as
+     * it is decoded otherwise. Replaces any background the manager still waits for.
+     */
+    @MainThread
+    public void show(BackgroundManager backgroundManager, String url) {
+        Entry entry = mCache.get(url);
+        if (entry != null) {
+            mWaiting.remove(backgroundManager);
+            display(backgroundManager, entry);
+            return;
+        }
+        mWaiting.put(backgroundManager, url);
+        load(url, SHOW);
+    }
+
+    /**
+     * Forgets the background the BackgroundManager waits for, if any.
+     */
+    @MainThread
+    public void cancel(BackgroundManager backgroundManager) {
+        mWaiting.remove(backgroundManager);
+    }
+
+    /**
+     * Decodes the background into the cache, at a low priority, unless it is already there.
+     */
+    @MainThread
+    public void prefetch(@Nullable String url) {
+        if (url != null && mCache.get(url) == null) {
+            load(url, null);
+        }
+    }
+
+    /**
+     * Prefetches the backgrounds of the cards next to the one selected in a row, and cancels the
+     * prefetches of the backgrounds of all other cards.
+     */
+    @MainThread
+    public void prefetchNeighbours(RowPresenter.ViewHolder rowViewHolder, Row row,
+            UrlResolver resolver) {
+        if (!(rowViewHolder instanceof ListRowPresenter.ViewHolder) || !(row instanceof ListRow)) {
+            return;
+        }
+        int selected = ((ListRowPresenter.ViewHolder) rowViewHolder).getGridView()
+                .getSelectedPosition();
+        ObjectAdapter adapter = ((ListRow) row).getAdapter();
+        List<String> neighbours = new ArrayList<>(2 * PREFETCH_NEIGHBOURS);
+        for (int i = 1; i <= PREFETCH_NEIGHBOURS; i++) {
+            if (selected + i < adapter.size()) {
+                neighbours.add(resolver.getBackgroundUrl(adapter.get(selected + i)));
+            }
+            if (selected - i >= 0) {
+                neighbours.add(resolver.getBackgroundUrl(adapter.get(selected - i)));
+            }
+        }
+
+        // the selection moved on, the decodes no one waits for anymore are only wasted work
+        for (int i = mPending.size() - 1; i >= 0; i--) {
+            String url = mPending.keyAt(i);
+            if (!neighbours.contains(url) && !mWaiting.containsValue(url)) {
+                mRequestManager.clear(mPending.removeAt(i));
+            }
+        }
+        for (String url : neighbours) {
+            prefetch(url);
+        }
+    }
+
+    private void load(String url, @Nullable RequestOptions priority) {
+        if (mPending.containsKey(url)) {
+            return;
+        }
+        PendingLoad pending = new PendingLoad(url);
+        mPending.put(url, pending);
+        RequestBuilder<Bitmap> request = mRequestManager.asBitmap()
+                .load(url)
+                .apply(ImageProfiles.BACKGROUND);
+        if (priority != null) {
+            request = request.apply(priority);
+        }
+        request.into(pending);
+    }
+
+    private void onLoaded(PendingLoad pending, Bitmap bitmap) {
+        if (mPending.get(pending.mKey) != pending) {
+            mRequestManager.clear(pending);
+            return;
+        }
+        mPending.remove(pending.mKey);
+        Entry entry = new Entry(new BitmapDrawable(mContext.getResources(), bitmap), pending);
+
+        // display before caching, so the entry is pinned if caching evicts it right away
+        for (Map.Entry<BackgroundManager, String> waiting : mWaiting.entrySet()) {
+            if (pending.mKey.equals(waiting.getValue())) {
+                display(waiting.getKey(), entry);
+            }
+        }
+        mWaiting.values().removeAll(Collections.singleton(pending.mKey));
+        mCache.put(pending.mKey, entry);
+    }
+
+    private void display(BackgroundManager backgroundManager, Entry entry) {
+        Entry[] shown = mShown.get(backgroundManager);
+        if (shown == null) {
+            shown = new Entry[2];
+            mShown.put(backgroundManager, shown);
+        }
+        if (shown[0] != entry) {
+            shown[1] = shown[0];
+            shown[0] = entry;
+        }
+        backgroundManager.setDrawable(entry.mDrawable);
+
+        for (int i = mDeferredReleases.size() - 1; i >= 0; i--) {
+            Entry released = mDeferredReleases.get(i);
+            if (!isShown(released)) {
+                mDeferredReleases.remove(i);
+                released.release();
+            }
+        }
+    }
+
+    private boolean isShown(Entry entry) {
+        for (Entry[] shown : mShown.values()) {
+            if (shown[0] == entry || shown[1] == entry) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A decoded background. Its bitmap still belongs to the Glide request which decoded it.
+     */
+    private final class Entry {
+
+        final BitmapDrawable mDrawable;
+        final PendingLoad mRequest;
+        final int mBytes;
+
+        Entry(BitmapDrawable drawable, PendingLoad request) {
+            mDrawable = drawable;
+            mRequest = request;
+            mBytes = drawable.getBitmap().getAllocationByteCount();
+        }
+
+        void release() {
+            mRequestManager.clear(mRequest);
+        }
+    }
+
+    private final class PendingLoad extends SimpleTarget<Bitmap> {
+
+        final String mKey;
+
+        PendingLoad(String key) {
+            super(mWidth, mHeight);
+            mKey = key;
+        }
+
+        @Override
+        public void onResourceReady(Bitmap resource, Transition<? super Bitmap> transition) {
+            onLoaded(this, resource);
+        }
+
+        @Override
+        public void onLoadFailed(@Nullable Drawable errorDrawable) {
+            if (mPending.get(mKey) == this) {
+                mPending.remove(mKey);
+                mWaiting.values().removeAll(Collections.singleton(mKey));
+            }
+        }
+    }
+}
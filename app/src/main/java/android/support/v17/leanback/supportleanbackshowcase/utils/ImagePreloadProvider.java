@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.content.Context;
+import android.support.annotation.Nullable;
+
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Implemented by card presenters whose images can be loaded ahead of their cards being bound, see
+ * {@link RowImagePreloader}. The model and options must be the ones used when binding the card,
+ * otherwise the preloaded image is cached under a different key and never used.
+ */
+public interface ImagePreloadProvider {
+
+    /**
+     * @return The model passed to Glide for the image of the item, <code>null</code> if the item
+     * has no image.
+     */
+    @Nullable
+    Object getPreloadModel(Context context, Object item);
+
+    RequestOptions getPreloadOptions(Context context);
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import com.bumptech.glide.Priority;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.resource.bitmap.DownsampleStrategy;
+import com.bumptech.glide.request.RequestOptions;
+
+/**
+ * Named request options for the kinds of images the app loads. Every Glide request applies one of
+ * these first, then adds its own options such as placeholders, e.g.
+ * <code>Glide.with(context).load(url).apply(ImageProfiles.CARD).apply(placeholder)</code>.
+ *
+ * The profiles are locked, clone them before changing them.
+ */
+public final class ImageProfiles {
+
+    /**
+     * Card art is opaque, decoding it as RGB_565 halves the memory each card takes. Glide still
+     * falls back to ARGB_8888 for images which have an alpha channel.
+     */
+    public static final RequestOptions CARD = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .lock();
+
+    /**
+     * Full screen backgrounds are opaque as well. They are loaded after the selection settles, so
+     * they shouldn't delay the cards the user is scrolling through.
+     */
+    public static final RequestOptions BACKGROUND = new RequestOptions()
+            .format(DecodeFormat.PREFER_RGB_565)
+            .priority(Priority.LOW)
+            .lock();
+
+    /**
+     * Icons and logos are drawn over other content, they keep their full alpha channel.
+     */
+    public static final RequestOptions LOGO = new RequestOptions()
+            .format(DecodeFormat.PREFER_ARGB_8888)
+            .priority(Priority.HIGH)
+            .lock();
+
+    private ImageProfiles() {
+    }
+
+    /**
+     * @return {@link #CARD} for an image displayed at exactly the given size, in pixels. The image
+     * is downsampled while it is decoded, so the full resolution bitmap is never allocated. The
+     * center crop is explicit so requests into a target other than the card's ImageView, such as
+     * preloads, are cached under the same key. The returned options aren't locked, create them
+     * once per presenter or view holder rather than on every bind.
+     */
+    public static RequestOptions card(int width, int height) {
+        return CARD.clone()
+                .override(width, height)
+                .downsample(DownsampleStrategy.CENTER_OUTSIDE)
+                .centerCrop();
+    }
+}
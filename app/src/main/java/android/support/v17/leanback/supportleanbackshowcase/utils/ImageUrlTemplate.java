@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.content.Context;
+import android.net.Uri;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.text.TextUtils;
+
+/**
+ * Rewrites the url of a remote image so an image CDN can serve a variant already scaled to the
+ * size it is displayed at, instead of the full resolution original.
+ *
+ * The template is read from R.string.image_url_template and may contain {url}, {encoded_url},
+ * {width} and {height}, e.g. <code>https://cdn.example.com/resize?w={width}&h={height}&src=
+ * {encoded_url}</code>. When it is empty, which is the default, urls are left untouched. Local
+ * content such as files and resources is never rewritten.
+ */
+public final class ImageUrlTemplate {
+
+    private static final String URL = "{url}";
+    private static final String ENCODED_URL = "{encoded_url}";
+    private static final String WIDTH = "{width}";
+    private static final String HEIGHT = "{height}";
+
+    private static ImageUrlTemplate sInstance;
+
+    private final String mTemplate;
+
+    public static synchronized ImageUrlTemplate getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new ImageUrlTemplate(
+                    context.getApplicationContext().getString(R.string.image_url_template));
+        }
+        return sInstance;
+    }
+
+    ImageUrlTemplate(String template) {
+        mTemplate = template;
+    }
+
+    /**
+     * @return The url of the image scaled to the given size, in pixels.
+     */
+    public String apply(String url, int width, int height) {
+        if (TextUtils.isEmpty(mTemplate) || url == null
+                || !(url.startsWith("http://") || url.startsWith("https://"))) {
+            return url;
+        }
+        String result = mTemplate
+                .replace(WIDTH, Integer.toString(width))
+                .replace(HEIGHT, Integer.toString(height));
+        if (result.contains(ENCODED_URL)) {
+            result = result.replace(ENCODED_URL, Uri.encode(url));
+        }
+        return result.replace(URL, url);
+    }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.support.v17.leanback.widget.ListRow;
+import android.support.v17.leanback.widget.ListRowPresenter;
+import android.support.v17.leanback.widget.RowPresenter;
+
+/**
+ * A {@link ListRowPresenter} which loads the images of the cards ahead of the selection in each
+ * row, see {@link RowImagePreloader}.
+ */
+public class PreloadingListRowPresenter extends ListRowPresenter {
+
+    private int mMemoryDepth = RowImagePreloader.DEFAULT_MEMORY_DEPTH;
+    private int mDiskDepth = RowImagePreloader.DEFAULT_DISK_DEPTH;
+
+    /**
+     * Sets how many cards ahead of the selection have their images decoded into the memory cache,
+     * and how many cards after those only have their images downloaded to the disk cache.
+     */
+    public void setPreloadDepth(int memoryDepth, int diskDepth) {
+        mMemoryDepth = memoryDepth;
+        mDiskDepth = diskDepth;
+    }
+
+    @Override
+    protected void onBindRowViewHolder(RowPresenter.ViewHolder holder, Object item) {
+        super.onBindRowViewHolder(holder, item);
+        ViewHolder vh = (ViewHolder) holder;
+        RowImagePreloader.attach(vh.getGridView(), ((ListRow) item).getAdapter(),
+                mMemoryDepth, mDiskDepth);
+    }
+
+    @Override
+    protected void onUnbindRowViewHolder(RowPresenter.ViewHolder holder) {
+        RowImagePreloader.detach(((ViewHolder) holder).getGridView());
+        super.onUnbindRowViewHolder(holder);
+    }
+}
@@ -0,0 +1,299 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.content.Context;
+import android.content.res.Resources;
+import android.os.Handler;
+import android.os.Looper;
+import android.support.annotation.MainThread;
+import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
+import android.support.annotation.WorkerThread;
+import android.support.v17.leanback.supportleanbackshowcase.app.rows.ChannelContents;
+import android.support.v17.leanback.supportleanbackshowcase.models.CardRow;
+import android.support.v17.leanback.supportleanbackshowcase.models.DetailedCard;
+import android.support.v17.leanback.supportleanbackshowcase.models.Movie;
+import android.support.v17.leanback.supportleanbackshowcase.models.SongList;
+import android.support.v17.leanback.supportleanbackshowcase.processor.PrecompileRawResources;
+import android.support.v17.leanback.supportleanbackshowcase.processor.RawResource;
+import android.util.Log;
+import android.util.SparseArray;
+
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Process wide cache of the models decoded from the JSON files in res/raw.
+ *
+ * Every model is created at most once and the resulting instance is shared by all screens which
+ * need it. Files listed in {@link PrecompileRawResources} are compiled into java code at build
+ * time; their models are built on first use on the calling thread, without any parsing, so they
+ * are always delivered synchronously. All other files are parsed on a background thread.
+ *
+ * Only top level arrays are copied before they are handed out, so callers can reorder them. The
+ * copies are shallow: the models in them, and any lists or objects they reference, are shared by
+ * every screen and must not be modified. Screens which need to keep per-screen state on a model
+ * must copy it first.
+ *
+ * If a file cannot be parsed, {@link Callback#onModelFailed(Throwable)} is called instead of
+ * {@link Callback#onModelReady(Object)}; models are never delivered as <code>null</code>.
+ */
+@PrecompileRawResources({
+        @RawResource(name = "launcher_cards", type = CardRow[].class),
+        @RawResource(name = "cards_example", type = CardRow[].class),
+        @RawResource(name = "page_row_example", type = CardRow[].class),
+        @RawResource(name = "grid_example", type = CardRow.class),
+        @RawResource(name = "icon_example", type = CardRow.class),
+        @RawResource(name = "settings_row", type = CardRow.class),
+        @RawResource(name = "detail_example", type = DetailedCard.class),
+        @RawResource(name = "wizard_example", type = Movie.class),
+        @RawResource(name = "music_consumption_example", type = SongList.class),
+        @RawResource(name = "movie", type = ChannelContents[].class)
+})
+public class RawModelCache {
+
+    private static final String TAG = "RawModelCache";
+
+    /**
+     * Receives a model once it has been parsed. Always called on the main thread.
+     */
+    public abstract static class Callback<T> {
+        public abstract void onModelReady(T model);
+
+        /**
+         * Called instead of {@link #onModelReady(Object)} when the resource cannot be parsed.
+         * The error has already been logged, by default nothing else happens.
+         */
+        public void onModelFailed(Throwable error) {
+        }
+    }
+
+    /**
+     * Thrown by {@link #get(int, Class)} when the resource cannot be parsed.
+     */
+    public static class ModelException extends RuntimeException {
+        ModelException(Throwable cause) {
+            super(cause);
+        }
+    }
+
+    private static RawModelCache sInstance;
+
+    private final Resources mResources;
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    // guarded by this
+    private final SparseArray<Entry<?>> mEntries = new SparseArray<>();
+
+    public static synchronized RawModelCache getInstance(Context context) {
+        if (sInstance == null) {
+            sInstance = new RawModelCache(context.getApplicationContext().getResources());
+        }
+        return sInstance;
+    }
+
+    private RawModelCache(Resources resources) {
+        mResources = resources;
+    }
+
+    /**
+     * Schedules the given resource to be parsed in the background, if it hasn't been already.
+     * Precompiled resources are built right away on the calling thread instead, so there is no
+     * point in preloading them.
+     */
+    public <T> void preload(@RawRes int rawResId, Class<T> type) {
+        getEntry(rawResId, type);
+    }
+
+    /**
+     * @return The model if it has already been parsed, <code>null</code> if it hasn't been yet or
+     * failed to parse. Never blocks.
+     */
+    @Nullable
+    public <T> T peek(@RawRes int rawResId, Class<T> type) {
+        Entry<T> entry = getEntry(rawResId, type);
+        if (!entry.isDone() || entry.getError() != null) {
+            return null;
+        }
+        return copyOf(entry.getModel());
+    }
+
+    /**
+     * Waits until the model has been parsed. Must not be called from the main thread.
+     *
+     * @throws ModelException If the resource cannot be parsed.
+     */
+    @WorkerThread
+    public <T> T get(@RawRes int rawResId, Class<T> type) {
+        Entry<T> entry = getEntry(rawResId, type);
+        Throwable error = entry.getError();
+        if (error != null) {
+            throw new ModelException(error);
+        }
+        return copyOf(entry.getModel());
+    }
+
+    /**
+     * Delivers the model to the callback on the main thread. When the model is already available
+     * the callback runs before this method returns, so screens opened after the first parse
+     * populate synchronously.
+     */
+    @MainThread
+    public <T> void load(@RawRes int rawResId, Class<T> type, final Callback<T> callback) {
+        final Entry<T> entry = getEntry(rawResId, type);
+        if (entry.isDone()) {
+            deliver(entry, callback);
+            return;
+        }
+        entry.addCallback(new Runnable() {
+            @Override
+            public void run() {
+                deliver(entry, callback);
+            }
+        });
+    }
+
+    private static <T> void deliver(Entry<T> entry, Callback<T> callback) {
+        Throwable error = entry.getError();
+        if (error != null) {
+            callback.onModelFailed(error);
+        } else {
+            callback.onModelReady(copyOf(entry.getModel()));
+        }
+    }
+
+    private synchronized <T> Entry<T> getEntry(@RawRes final int rawResId, final Class<T> type) {
+        Entry<T> entry = (Entry<T>) mEntries.get(rawResId);
+        if (entry == null) {
+            final String name = mResources.getResourceEntryName(rawResId);
+            final boolean precompiled = PrecompiledRawModels.contains(name);
+            entry = new Entry<>(type, new Callable<T>() {
+                @Override
+                public T call() throws Exception {
+                    T model = precompiled ? type.cast(PrecompiledRawModels.create(name))
+                            : Utils.<T>rawResourceFromJson(mResources, rawResId,
+                                    Utils.getGson(), type);
+                    if (model == null) {
+                        throw new IOException("Raw resource " + name + " is empty");
+                    }
+                    return model;
+                }
+            });
+            mEntries.put(rawResId, entry);
+            if (precompiled) {
+                // no parsing involved, so the model is built right away on the calling thread
+                entry.run();
+            } else {
+                mExecutor.execute(entry);
+            }
+        } else if (entry.mType != type) {
+            throw new IllegalArgumentException("Resource " + rawResId + " already cached as "
+                    + entry.mType.getName() + ", requested as " + type.getName());
+        }
+        return entry;
+    }
+
+    private static <T> T copyOf(T model) {
+        if (model != null && model.getClass().isArray()) {
+            int length = Array.getLength(model);
+            Object copy = Array.newInstance(model.getClass().getComponentType(), length);
+            System.arraycopy(model, 0, copy, 0, length);
+            return (T) copy;
+        }
+        return model;
+    }
+
+    /**
+     * A single cached resource. Callbacks registered before the parse finishes are posted to the
+     * main thread once it does.
+     */
+    private class Entry<T> extends FutureTask<T> {
+
+        private final Class<T> mType;
+        private final List<Runnable> mCallbacks = new ArrayList<>();
+
+        Entry(Class<T> type, Callable<T> callable) {
+            super(callable);
+            mType = type;
+        }
+
+        synchronized void addCallback(Runnable callback) {
+            if (isDone()) {
+                mMainHandler.post(callback);
+            } else {
+                mCallbacks.add(callback);
+            }
+        }
+
+        @Override
+        protected void setException(Throwable t) {
+            Log.e(TAG, "Failed to parse raw resource", t);
+            super.setException(t);
+        }
+
+        @Override
+        protected synchronized void done() {
+            for (Runnable callback : mCallbacks) {
+                mMainHandler.post(callback);
+            }
+            mCallbacks.clear();
+        }
+
+        /**
+         * Waits for the model. Only valid if {@link #getError()} returns <code>null</code>.
+         */
+        T getModel() {
+            boolean interrupted = false;
+            try {
+                while (true) {
+                    try {
+                        return get();
+                    } catch (InterruptedException e) {
+                        interrupted = true;
+                    }
+                }
+            } catch (ExecutionException e) {
+                throw new ModelException(e.getCause());
+            } finally {
+                if (interrupted) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+
+        /**
+         * Waits for the model.
+         *
+         * @return Why the model couldn't be created, <code>null</code> if it could.
+         */
+        Throwable getError() {
+            try {
+                getModel();
+                return null;
+            } catch (ModelException e) {
+                return e.getCause();
+            }
+        }
+    }
+}
@@ -14,21 +14,52 @@
 
 package android.support.v17.leanback.supportleanbackshowcase.utils;
 
+import android.support.annotation.IdRes;
+import android.support.v17.leanback.supportleanbackshowcase.R;
 import android.util.SparseArray;
 import android.view.View;
 
 /**
  * ResourceCache allows retrieving children from a given view and caches the resulting views in
  * order to prevent future lookups.
+ *
+ * Every cache belongs to a single root view, usually the view of a ViewHolder, and is attached to
+ * it as a tag. Presenters attach it when they create the view holder, with the ids of the children
+ * they bind, so binding only looks the children up in the cache.
  */
 public class ResourceCache {
 
+    private final View mRoot;
     private final SparseArray<View> mCachedViews = new SparseArray<View>();
 
-    public <ViewType extends View> ViewType getViewById(View view, int resId) {
+    private ResourceCache(View root) {
+        mRoot = root;
+    }
+
+    /**
+     * Attaches a new cache to the view and looks up the given children right away.
+     */
+    public static ResourceCache attach(View root, @IdRes int... resIds) {
+        ResourceCache cache = new ResourceCache(root);
+        for (int resId : resIds) {
+            cache.getViewById(resId);
+        }
+        root.setTag(R.id.resource_cache, cache);
+        return cache;
+    }
+
+    /**
+     * @return The cache attached to the view, attaching an empty one if it has none yet.
+     */
+    public static ResourceCache of(View root) {
+        ResourceCache cache = (ResourceCache) root.getTag(R.id.resource_cache);
+        return cache != null ? cache : attach(root);
+    }
+
+    public <ViewType extends View> ViewType getViewById(@IdRes int resId) {
         View child = mCachedViews.get(resId, null);
         if (child == null) {
-            child = view.findViewById(resId);
+            child = mRoot.findViewById(resId);
             mCachedViews.put(resId, child);
         }
         return (ViewType) child;
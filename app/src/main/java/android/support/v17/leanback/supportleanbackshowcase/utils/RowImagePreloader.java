@@ -0,0 +1,374 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.support.annotation.Nullable;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.widget.HorizontalGridView;
+import android.support.v17.leanback.widget.ObjectAdapter;
+import android.support.v17.leanback.widget.OnChildViewHolderSelectedListener;
+import android.support.v17.leanback.widget.Presenter;
+import android.support.v4.util.ArrayMap;
+import android.support.v4.view.ViewCompat;
+import android.support.v7.widget.RecyclerView;
+import android.util.Log;
+import android.view.View;
+import android.view.ViewParent;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.SimpleTarget;
+import com.bumptech.glide.request.target.Target;
+import com.bumptech.glide.request.target.ViewTarget;
+import com.bumptech.glide.request.transition.Transition;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Loads the images of the cards ahead of the selection in a single row, in the direction the user
+ * is moving, so they are ready by the time the cards are bound.
+ *
+ * The images of the first cards ahead are decoded into Glide's memory cache, the images of the
+ * cards after those are only downloaded to the disk cache. Moving the other way cancels all
+ * pending requests. Only cards whose presenter implements {@link ImagePreloadProvider} are
+ * preloaded. Presenters which add {@link #BIND_LISTENER} to the requests binding their cards get
+ * the share of images served from Glide's memory and disk caches logged under the
+ * "RowImagePreloader" tag when the row is unbound.
+ */
+public class RowImagePreloader {
+
+    private static final String TAG = "RowImagePreloader";
+
+    static final int DEFAULT_MEMORY_DEPTH = 4;
+    static final int DEFAULT_DISK_DEPTH = 8;
+
+    private static final int FORWARD = 1;
+    private static final int BACKWARD = -1;
+
+    /**
+     * Counts where the images of the cards shown in a row with a preloader came from, see
+     * {@link DataSource}. Only images bound after the user started moving through the row are
+     * counted, the first cards can't have been preloaded.
+     */
+    public static final RequestListener<Drawable> BIND_LISTENER = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model,
+                Target<Drawable> target, boolean isFirstResource) {
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(Drawable resource, Object model, Target<Drawable> target,
+                DataSource dataSource, boolean isFirstResource) {
+            if (!isFirstResource || !(target instanceof ViewTarget)) {
+                return false;
+            }
+            View view = ((ViewTarget<?, ?>) target).getView();
+            ViewParent parent = view.getParent();
+            while (parent instanceof View && !(parent instanceof HorizontalGridView)) {
+                view = (View) parent;
+                parent = parent.getParent();
+            }
+            if (parent instanceof HorizontalGridView) {
+                RowImagePreloader preloader = (RowImagePreloader)
+                        ((View) parent).getTag(R.id.row_image_preloader);
+                if (preloader != null) {
+                    preloader.count(dataSource);
+                }
+            } else {
+                // memory cache hits are delivered while the card is bound, before it is added to
+                // the row; the card is counted once it is attached
+                view.setTag(R.id.card_image_source, dataSource);
+            }
+            return false;
+        }
+    };
+
+    // hit counts of all rows, only touched on the main thread
+    private static int sTotalMemoryHits;
+    private static int sTotalDiskHits;
+    private static int sTotalMisses;
+
+    private final ObjectAdapter mAdapter;
+    private final Context mContext;
+    private final RequestManager mRequestManager;
+    private final int mMemoryDepth;
+    private final int mDiskDepth;
+
+    private int mAnchor = RecyclerView.NO_POSITION;
+    private int mDirection;
+
+    // pending and completed requests of the cards in the current window, by model
+    private final ArrayMap<Object, Target<?>> mRequests = new ArrayMap<>();
+    // models of the cards in the current window, reused by every update
+    private final ArrayMap<Object, ImagePreloadProvider> mWindow = new ArrayMap<>();
+    private final Set<Object> mMemoryWindow = new HashSet<>();
+
+    private int mMemoryHits;
+    private int mDiskHits;
+    private int mMisses;
+
+    private final OnChildViewHolderSelectedListener mSelectedListener =
+            new OnChildViewHolderSelectedListener() {
+                @Override
+                public void onChildViewHolderSelected(RecyclerView parent,
+                        RecyclerView.ViewHolder child, int position, int subposition) {
+                    onSelected(position);
+                }
+            };
+
+    private final RecyclerView.OnScrollListener mScrollListener =
+            new RecyclerView.OnScrollListener() {
+                @Override
+                public void onScrolled(RecyclerView recyclerView, int dx, int dy) {
+                    if (dx == 0) {
+                        return;
+                    }
+                    boolean rtl = ViewCompat.getLayoutDirection(recyclerView)
+                            == ViewCompat.LAYOUT_DIRECTION_RTL;
+                    if (setDirection((dx > 0) != rtl ? FORWARD : BACKWARD)) {
+                        updateWindow();
+                    }
+                }
+            };
+
+    private final RecyclerView.OnChildAttachStateChangeListener mAttachListener =
+            new RecyclerView.OnChildAttachStateChangeListener() {
+                @Override
+                public void onChildViewAttachedToWindow(View view) {
+                    DataSource dataSource = (DataSource) view.getTag(R.id.card_image_source);
+                    if (dataSource != null) {
+                        view.setTag(R.id.card_image_source, null);
+                        count(dataSource);
+                    }
+                }
+
+                @Override
+                public void onChildViewDetachedFromWindow(View view) {
+                }
+            };
+
+    /**
+     * Starts preloading the images of the given row, replacing the preloader previously attached
+     * to the grid view, if any.
+     */
+    public static void attach(HorizontalGridView gridView, ObjectAdapter adapter,
+            int memoryDepth, int diskDepth) {
+        detach(gridView);
+        RowImagePreloader preloader =
+                new RowImagePreloader(gridView, adapter, memoryDepth, diskDepth);
+        gridView.setTag(R.id.row_image_preloader, preloader);
+        gridView.addOnChildViewHolderSelectedListener(preloader.mSelectedListener);
+        gridView.addOnScrollListener(preloader.mScrollListener);
+        gridView.addOnChildAttachStateChangeListener(preloader.mAttachListener);
+    }
+
+    /**
+     * Cancels the pending requests of the preloader attached to the grid view and reports its
+     * hit rate.
+     */
+    public static void detach(HorizontalGridView gridView) {
+        RowImagePreloader preloader =
+                (RowImagePreloader) gridView.getTag(R.id.row_image_preloader);
+        if (preloader == null) {
+            return;
+        }
+        gridView.setTag(R.id.row_image_preloader, null);
+        gridView.removeOnChildViewHolderSelectedListener(preloader.mSelectedListener);
+        gridView.removeOnScrollListener(preloader.mScrollListener);
+        gridView.removeOnChildAttachStateChangeListener(preloader.mAttachListener);
+        preloader.cancelAll();
+        preloader.report();
+    }
+
+    private RowImagePreloader(HorizontalGridView gridView, ObjectAdapter adapter,
+            int memoryDepth, int diskDepth) {
+        mAdapter = adapter;
+        mContext = gridView.getContext();
+        mRequestManager = Glide.with(mContext);
+        mMemoryDepth = memoryDepth;
+        mDiskDepth = diskDepth;
+    }
+
+    private void onSelected(int position) {
+        if (position == RecyclerView.NO_POSITION) {
+            return;
+        }
+        if (mAnchor != RecyclerView.NO_POSITION && position != mAnchor) {
+            setDirection(position > mAnchor ? FORWARD : BACKWARD);
+        } else if (mDirection == 0) {
+            // rows start at their first card, so the only way to go is forward
+            setDirection(FORWARD);
+        }
+        mAnchor = position;
+        updateWindow();
+    }
+
+    /**
+     * @return <code>true</code> if the direction changed.
+     */
+    private boolean setDirection(int direction) {
+        if (direction == mDirection) {
+            return false;
+        }
+        if (mDirection != 0) {
+            cancelAll();
+        }
+        mDirection = direction;
+        return true;
+    }
+
+    /**
+     * Requests the images of the cards ahead of the anchor which aren't requested yet, and cancels
+     * the requests of the cards which left the window.
+     */
+    private void updateWindow() {
+        if (mAnchor == RecyclerView.NO_POSITION || mDirection == 0) {
+            return;
+        }
+        int size = mAdapter.size();
+        for (int i = 1; i <= mMemoryDepth + mDiskDepth; i++) {
+            int position = mAnchor + mDirection * i;
+            if (position < 0 || position >= size) {
+                break;
+            }
+            Object item = mAdapter.get(position);
+            Presenter presenter = mAdapter.getPresenter(item);
+            if (!(presenter instanceof ImagePreloadProvider)) {
+                continue;
+            }
+            ImagePreloadProvider provider = (ImagePreloadProvider) presenter;
+            Object model = provider.getPreloadModel(mContext, item);
+            if (model != null && !mWindow.containsKey(model)) {
+                mWindow.put(model, provider);
+                if (i <= mMemoryDepth) {
+                    mMemoryWindow.add(model);
+                }
+            }
+        }
+
+        for (Iterator<Map.Entry<Object, Target<?>>> it = mRequests.entrySet().iterator();
+                it.hasNext(); ) {
+            Map.Entry<Object, Target<?>> request = it.next();
+            if (!mWindow.containsKey(request.getKey())) {
+                // completed images stay in the caches once the request is cleared
+                mRequestManager.clear(request.getValue());
+                it.remove();
+            }
+        }
+
+        for (int i = 0; i < mWindow.size(); i++) {
+            Object model = mWindow.keyAt(i);
+            boolean memory = mMemoryWindow.contains(model);
+            Target<?> request = mRequests.get(model);
+            if (request != null && (!memory || request instanceof MemoryTarget)) {
+                continue;
+            }
+            if (request != null) {
+                // the card moved closer, the download is replaced by a full load
+                mRequestManager.clear(request);
+            }
+            if (memory) {
+                mRequests.put(model, mRequestManager.load(model)
+                        .apply(mWindow.valueAt(i).getPreloadOptions(mContext))
+                        .into(new MemoryTarget()));
+            } else if (isRemote(model)) {
+                mRequests.put(model, mRequestManager.downloadOnly()
+                        .load(model)
+                        .into(new DiskTarget()));
+            }
+        }
+        mWindow.clear();
+        mMemoryWindow.clear();
+    }
+
+    private void count(DataSource dataSource) {
+        if (mDirection == 0) {
+            return;
+        }
+        switch (dataSource) {
+            case MEMORY_CACHE:
+                mMemoryHits++;
+                sTotalMemoryHits++;
+                break;
+            case DATA_DISK_CACHE:
+            case RESOURCE_DISK_CACHE:
+                mDiskHits++;
+                sTotalDiskHits++;
+                break;
+            default:
+                mMisses++;
+                sTotalMisses++;
+                break;
+        }
+    }
+
+    private void cancelAll() {
+        for (int i = 0; i < mRequests.size(); i++) {
+            mRequestManager.clear(mRequests.valueAt(i));
+        }
+        mRequests.clear();
+    }
+
+    private void report() {
+        int shown = mMemoryHits + mDiskHits + mMisses;
+        if (shown == 0) {
+            return;
+        }
+        int totalShown = sTotalMemoryHits + sTotalDiskHits + sTotalMisses;
+        Log.i(TAG, "row: memory hits " + percent(mMemoryHits, shown)
+                + "%, disk hits " + percent(mDiskHits, shown) + "% of " + shown + " cards"
+                + "; all rows: memory hits " + percent(sTotalMemoryHits, totalShown)
+                + "%, disk hits " + percent(sTotalDiskHits, totalShown) + "% of " + totalShown
+                + " cards");
+    }
+
+    private static int percent(int count, int total) {
+        return count * 100 / total;
+    }
+
+    private static boolean isRemote(Object model) {
+        if (!(model instanceof String)) {
+            return false;
+        }
+        String url = (String) model;
+        return url.startsWith("http://") || url.startsWith("https://");
+    }
+
+    private static final class MemoryTarget extends SimpleTarget<Drawable> {
+
+        @Override
+        public void onResourceReady(Drawable resource, Transition<? super Drawable> transition) {
+            // only loaded to warm up the memory cache
+        }
+    }
+
+    private static final class DiskTarget extends SimpleTarget<File> {
+
+        @Override
+        public void onResourceReady(File resource, Transition<? super File> transition) {
+            // only downloaded to warm up the disk cache
+        }
+    }
+}
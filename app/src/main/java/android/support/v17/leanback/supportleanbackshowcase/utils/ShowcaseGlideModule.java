@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.app.ActivityManager;
+import android.content.Context;
+import android.util.Log;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.bitmap_recycle.LruBitmapPool;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * App wide Glide configuration, tuned for TV browsing.
+ *
+ * Browse screens show several rows of cards at once and are scrolled quickly with the d-pad, so
+ * the memory cache holds three screens worth of images instead of Glide's two. The bitmap pool
+ * keeps Glide's default of four screens. Devices with little RAM use two screens for both, which
+ * is half of the default bitmap pool. Glide still caps the total at a fraction of the app's memory
+ * class. The disk cache is kept small on low RAM devices, which usually ship with little storage as
+ * well. Every image load of the app shares this configuration, including the bitmap
+ * pool which transformations and decoders reuse bitmaps from. Per request settings come from
+ * {@link ImageProfiles}.
+ */
+@GlideModule
+public final class ShowcaseGlideModule extends AppGlideModule {
+
+    private static final String TAG = "ShowcaseGlideModule";
+    private static final boolean DEBUG = false;
+
+    private static final long MB = 1024 * 1024;
+
+    // devices with less total memory than this get the smaller caches
+    private static final long LOW_TOTAL_MEMORY = 1024 * MB;
+
+    private static final float MEMORY_CACHE_SCREENS = 3;
+    private static final float BITMAP_POOL_SCREENS = 4;
+    private static final float LOW_RAM_MEMORY_CACHE_SCREENS = 2;
+    private static final float LOW_RAM_BITMAP_POOL_SCREENS = 2;
+
+    private static final int DISK_CACHE_SIZE = (int) (256 * MB);
+    private static final int LOW_RAM_DISK_CACHE_SIZE = (int) (64 * MB);
+
+    @Override
+    public void applyOptions(Context context, GlideBuilder builder) {
+        ActivityManager activityManager =
+                (ActivityManager) context.getSystemService(Context.ACTIVITY_SERVICE);
+        ActivityManager.MemoryInfo memoryInfo = new ActivityManager.MemoryInfo();
+        activityManager.getMemoryInfo(memoryInfo);
+        boolean lowRam = activityManager.isLowRamDevice()
+                || memoryInfo.totalMem < LOW_TOTAL_MEMORY;
+
+        MemorySizeCalculator calculator = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(lowRam ? LOW_RAM_MEMORY_CACHE_SCREENS
+                        : MEMORY_CACHE_SCREENS)
+                .setBitmapPoolScreens(lowRam ? LOW_RAM_BITMAP_POOL_SCREENS
+                        : BITMAP_POOL_SCREENS)
+                .build();
+        int diskCacheSize = lowRam ? LOW_RAM_DISK_CACHE_SIZE : DISK_CACHE_SIZE;
+
+        builder.setMemoryCache(new LruResourceCache(calculator.getMemoryCacheSize()));
+        builder.setBitmapPool(new LruBitmapPool(calculator.getBitmapPoolSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, diskCacheSize));
+
+        if (DEBUG) {
+            Log.d(TAG, "lowRam=" + lowRam + " memoryCache=" + calculator.getMemoryCacheSize()
+                    + " bitmapPool=" + calculator.getBitmapPoolSize()
+                    + " diskCache=" + diskCacheSize);
+        }
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        // everything is configured here, don't spend startup time looking for manifest modules
+        return false;
+    }
+}
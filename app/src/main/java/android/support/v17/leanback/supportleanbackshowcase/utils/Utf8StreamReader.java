@@ -0,0 +1,125 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); you may not use this file except
+ * in compliance with the License. You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software distributed under the License
+ * is distributed on an "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express
+ * or implied. See the License for the specific language governing permissions and limitations under
+ * the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.utils;
+
+import android.support.v4.util.Pools;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * A {@link Reader} which decodes an {@link InputStream} as UTF-8, independently of the platform
+ * default charset.
+ *
+ * The stream is read in chunks until it is exhausted, so nothing relies on
+ * {@link InputStream#available()}. The byte buffer and the decoder are taken from a small pool and
+ * returned when the reader is closed, so reading many resources in a row doesn't allocate new
+ * buffers for each of them.
+ */
+public class Utf8StreamReader extends Reader {
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final int BUFFER_SIZE = 8192;
+    private static final int POOL_SIZE = 4;
+
+    private static final Pools.SynchronizedPool<ByteBuffer> sBufferPool =
+            new Pools.SynchronizedPool<>(POOL_SIZE);
+    private static final Pools.SynchronizedPool<CharsetDecoder> sDecoderPool =
+            new Pools.SynchronizedPool<>(POOL_SIZE);
+
+    private final InputStream mInputStream;
+    private ByteBuffer mBytes;
+    private CharsetDecoder mDecoder;
+    private boolean mEndOfInput;
+    private boolean mFlushed;
+
+    public Utf8StreamReader(InputStream inputStream) {
+        mInputStream = inputStream;
+        mBytes = sBufferPool.acquire();
+        if (mBytes == null) {
+            mBytes = ByteBuffer.allocate(BUFFER_SIZE);
+        }
+        mDecoder = sDecoderPool.acquire();
+        if (mDecoder == null) {
+            mDecoder = UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+
+        // start with an empty buffer in read mode
+        mBytes.clear();
+        mBytes.flip();
+    }
+
+    @Override
+    public int read(char[] buffer, int offset, int length) throws IOException {
+        if (mBytes == null) {
+            throw new IOException("Reader is closed");
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (mFlushed) {
+            return -1;
+        }
+        CharBuffer out = CharBuffer.wrap(buffer, offset, length);
+        while (true) {
+            CoderResult result = mDecoder.decode(mBytes, out, mEndOfInput);
+            if (result.isOverflow() || out.position() > offset) {
+                break;
+            }
+            if (mEndOfInput) {
+                mDecoder.flush(out);
+                mFlushed = true;
+                break;
+            }
+            fill();
+        }
+        int count = out.position() - offset;
+        return count == 0 && mFlushed ? -1 : count;
+    }
+
+    private void fill() throws IOException {
+        mBytes.compact();
+        int count = mInputStream.read(mBytes.array(), mBytes.arrayOffset() + mBytes.position(),
+                mBytes.remaining());
+        if (count < 0) {
+            mEndOfInput = true;
+        } else {
+            mBytes.position(mBytes.position() + count);
+        }
+        mBytes.flip();
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (mBytes == null) {
+            return;
+        }
+        mDecoder.reset();
+        sDecoderPool.release(mDecoder);
+        sBufferPool.release(mBytes);
+        mDecoder = null;
+        mBytes = null;
+        mInputStream.close();
+    }
+}
@@ -16,36 +16,126 @@ package android.support.v17.leanback.supportleanbackshowcase.utils;
 
 import android.content.ContentResolver;
 import android.content.Context;
+import android.content.res.Resources;
 import android.net.Uri;
+import android.support.annotation.Nullable;
+import android.support.annotation.RawRes;
+import android.support.v17.leanback.supportleanbackshowcase.R;
+import android.support.v17.leanback.supportleanbackshowcase.processor.GenerateResourceIndex;
+import android.text.TextUtils;
+import android.widget.TextView;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
+import com.google.gson.stream.JsonReader;
+
+import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Type;
 
 /**
  * A collection of utility methods, all static.
  */
+@GenerateResourceIndex(rClass = R.class)
 public class Utils {
 
+    private static final int CHAR_BUFFER_SIZE = 2048;
+
+    /**
+     * Lazily created Gson shared by the whole app. The generated type adapters of the models are
+     * registered on it, so parsing them doesn't go through reflection.
+     */
+    private static class GsonHolder {
+        static final Gson sGson = new GsonBuilder()
+                .registerTypeAdapterFactory(new GeneratedTypeAdapterFactory())
+                .create();
+    }
+
+    /**
+     * @return The app wide {@link Gson} instance which should be used to parse every model.
+     */
+    public static Gson getGson() {
+        return GsonHolder.sGson;
+    }
+
     public static int convertDpToPixel(Context ctx, int dp) {
         float density = ctx.getResources().getDisplayMetrics().density;
         return Math.round((float) dp * density);
     }
 
+    /**
+     * Sets the text of the view unless it already shows the same characters. Setting a text
+     * rebuilds the view's layout, which a card bound to the same data again doesn't need.
+     */
+    public static void setTextIfChanged(TextView textView, CharSequence text) {
+        if (!TextUtils.equals(textView.getText(), text)) {
+            textView.setText(text);
+        }
+    }
+
     /**
      * Will read the content from a given {@link InputStream} and return it as a {@link String}.
+     * The content is decoded as UTF-8 and the stream is closed afterwards.
+     *
+     * Prefer {@link #fromJson(Gson, InputStream, Type)} when the content is JSON, it doesn't need
+     * the intermediate {@link String}.
      *
      * @param inputStream The {@link InputStream} which should be read.
      * @return Returns <code>null</code> if the the {@link InputStream} could not be read. Else
      * returns the content of the {@link InputStream} as {@link String}.
      */
     public static String inputStreamToString(InputStream inputStream) {
+        Reader reader = new Utf8StreamReader(inputStream);
         try {
-            byte[] bytes = new byte[inputStream.available()];
-            inputStream.read(bytes, 0, bytes.length);
-            String json = new String(bytes);
-            return json;
+            StringBuilder builder = new StringBuilder();
+            char[] buffer = new char[CHAR_BUFFER_SIZE];
+            int count;
+            while ((count = reader.read(buffer, 0, buffer.length)) != -1) {
+                builder.append(buffer, 0, count);
+            }
+            return builder.toString();
         } catch (IOException e) {
             return null;
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Streams the JSON content of the given {@link InputStream} straight into Gson's token reader
+     * and closes the stream afterwards.
+     *
+     * @return Returns <code>null</code> only if the {@link InputStream} is empty.
+     * @throws JsonParseException if the {@link InputStream} could not be read or does not contain
+     * valid JSON for the given type.
+     */
+    @Nullable
+    public static <T> T fromJson(Gson gson, InputStream inputStream, Type type) {
+        JsonReader reader = new JsonReader(new Utf8StreamReader(inputStream));
+        try {
+            return gson.fromJson(reader, type);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    /**
+     * Parses a JSON file from res/raw, see {@link #fromJson(Gson, InputStream, Type)}.
+     */
+    @Nullable
+    public static <T> T rawResourceFromJson(Resources resources, @RawRes int resId, Gson gson,
+            Type type) {
+        return fromJson(gson, resources.openRawResource(resId), type);
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // nothing left to release
         }
     }
 
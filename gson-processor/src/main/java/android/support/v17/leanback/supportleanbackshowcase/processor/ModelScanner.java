@@ -0,0 +1,262 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.v17.leanback.supportleanbackshowcase.processor;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Elements;
+import javax.lang.model.util.Types;
+
+/**
+ * Resolves how the serialized fields of a model are read and written, following the same rules as
+ * Gson's reflective adapters.
+ */
+class ModelScanner {
+
+    private static final String SERIALIZED_NAME = "com.google.gson.annotations.SerializedName";
+
+    private final Elements mElements;
+    private final Types mTypes;
+
+    ModelScanner(ProcessingEnvironment env) {
+        mElements = env.getElementUtils();
+        mTypes = env.getTypeUtils();
+    }
+
+    /**
+     * Makes sure generated code can create instances of the model.
+     */
+    void checkInstantiable(TypeElement model) throws ProcessingException {
+        if (!model.getTypeParameters().isEmpty()) {
+            throw new ProcessingException(model, "Generic models are not supported");
+        }
+        if (model.getModifiers().contains(Modifier.ABSTRACT)) {
+            throw new ProcessingException(model, "Abstract models can't be instantiated");
+        }
+        if (model.getNestingKind().isNested() && !model.getModifiers().contains(Modifier.STATIC)) {
+            throw new ProcessingException(model, "Inner classes must be static");
+        }
+        for (ExecutableElement constructor
+                : ElementFilter.constructorsIn(model.getEnclosedElements())) {
+            if (constructor.getParameters().isEmpty()
+                    && !constructor.getModifiers().contains(Modifier.PRIVATE)) {
+                return;
+            }
+        }
+        throw new ProcessingException(model, "Models need a non private no-argument constructor");
+    }
+
+    /**
+     * Collects the serialized fields of the model and of its super classes, super class fields
+     * first like Gson does.
+     */
+    List<Property> collectProperties(TypeElement model) throws ProcessingException {
+        List<TypeElement> hierarchy = new ArrayList<>();
+        TypeElement current = model;
+        while (current != null
+                && !current.getQualifiedName().contentEquals(Object.class.getName())) {
+            hierarchy.add(0, current);
+            TypeMirror superclass = current.getSuperclass();
+            current = superclass.getKind() == TypeKind.DECLARED
+                    ? (TypeElement) mTypes.asElement(superclass) : null;
+        }
+
+        List<Property> properties = new ArrayList<>();
+        Set<String> names = new LinkedHashSet<>();
+        for (TypeElement type : hierarchy) {
+            for (VariableElement field : ElementFilter.fieldsIn(type.getEnclosedElements())) {
+                Set<Modifier> modifiers = field.getModifiers();
+                if (modifiers.contains(Modifier.STATIC) || modifiers.contains(Modifier.TRANSIENT)) {
+                    continue;
+                }
+                List<String> serializedNames = getSerializedNames(field);
+                if (serializedNames == null) {
+                    continue;
+                }
+                for (String name : serializedNames) {
+                    if (!names.add(name)) {
+                        throw new ProcessingException(field, "Duplicate serialized name " + name);
+                    }
+                }
+                properties.add(createProperty(model, field, serializedNames));
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * @return The names of the model's methods annotated with {@link OnDeserialized}, inherited
+     * ones included.
+     */
+    List<String> getDeserializedCallbacks(TypeElement model) throws ProcessingException {
+        List<String> callbacks = new ArrayList<>();
+        for (ExecutableElement method
+                : ElementFilter.methodsIn(mElements.getAllMembers(model))) {
+            if (method.getAnnotation(OnDeserialized.class) == null) {
+                continue;
+            }
+            Set<Modifier> modifiers = method.getModifiers();
+            if (modifiers.contains(Modifier.STATIC) || !method.getParameters().isEmpty()) {
+                throw new ProcessingException(method,
+                        "@OnDeserialized methods must be instance methods without arguments");
+            }
+            if (modifiers.contains(Modifier.PRIVATE) || (!modifiers.contains(Modifier.PUBLIC)
+                    && !getPackage((TypeElement) method.getEnclosingElement())
+                            .equals(getPackage(model)))) {
+                throw new ProcessingException(method,
+                        "@OnDeserialized methods must be visible from the model's package");
+            }
+            callbacks.add(method.getSimpleName().toString());
+        }
+        return callbacks;
+    }
+
+    private Property createProperty(TypeElement model, VariableElement field, List<String> names)
+            throws ProcessingException {
+        TypeMirror type = field.asType();
+        if (field.getModifiers().contains(Modifier.FINAL)) {
+            throw new ProcessingException(field, "Serialized fields can't be final");
+        }
+        if (isAccessible(model, field)) {
+            return new Property(field, type, names, null, null);
+        }
+
+        // fall back to bean style accessors, the way Room resolves private fields
+        String name = field.getSimpleName().toString();
+        if (name.length() > 1 && name.charAt(0) == 'm' && Character.isUpperCase(name.charAt(1))) {
+            name = name.substring(1);
+        }
+        name = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        String getter = null;
+        String setter = null;
+        for (ExecutableElement method
+                : ElementFilter.methodsIn(mElements.getAllMembers(model))) {
+            if (method.getModifiers().contains(Modifier.PRIVATE)
+                    || method.getModifiers().contains(Modifier.STATIC)) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            if (method.getParameters().isEmpty()
+                    && mTypes.isSameType(method.getReturnType(), type)
+                    && (methodName.equals("get" + name) || (methodName.equals("is" + name)
+                            && type.getKind() == TypeKind.BOOLEAN))) {
+                getter = methodName;
+            } else if (method.getParameters().size() == 1
+                    && mTypes.isSameType(method.getParameters().get(0).asType(), type)
+                    && methodName.equals("set" + name)) {
+                setter = methodName;
+            }
+        }
+        if (getter == null || setter == null) {
+            throw new ProcessingException(field, "Field " + field.getSimpleName()
+                    + " must either be visible from its package or have a getter and a setter");
+        }
+        return new Property(field, type, names, getter, setter);
+    }
+
+    private boolean isAccessible(TypeElement model, VariableElement field) {
+        Set<Modifier> modifiers = field.getModifiers();
+        if (modifiers.contains(Modifier.PRIVATE)) {
+            return false;
+        }
+        if (modifiers.contains(Modifier.PUBLIC)) {
+            return true;
+        }
+        // package private and protected fields are reachable from the model's own package
+        return getPackage((TypeElement) field.getEnclosingElement()).equals(getPackage(model));
+    }
+
+    /**
+     * @return The value and the alternates of the field's SerializedName annotation, or
+     * <code>null</code> when the field isn't annotated.
+     */
+    List<String> getSerializedNames(Element element) {
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            TypeElement annotationType = (TypeElement) annotation.getAnnotationType().asElement();
+            if (!annotationType.getQualifiedName().contentEquals(SERIALIZED_NAME)) {
+                continue;
+            }
+            List<String> names = new ArrayList<>();
+            for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                    : annotation.getElementValues().entrySet()) {
+                String key = entry.getKey().getSimpleName().toString();
+                if (key.equals("value")) {
+                    names.add(0, (String) entry.getValue().getValue());
+                } else if (key.equals("alternate")) {
+                    for (Object alternate : (List<?>) entry.getValue().getValue()) {
+                        names.add((String) ((AnnotationValue) alternate).getValue());
+                    }
+                }
+            }
+            return names;
+        }
+        return null;
+    }
+
+    String getPackage(TypeElement type) {
+        return mElements.getPackageOf(type).getQualifiedName().toString();
+    }
+
+    /**
+     * @return The given value as a java string literal, quotes included.
+     */
+    static String stringLiteral(String value) {
+        StringBuilder builder = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    builder.append("\\\"");
+                    break;
+                case '\\':
+                    builder.append("\\\\");
+                    break;
+                case '\n':
+                    builder.append("\\n");
+                    break;
+                case '\r':
+                    builder.append("\\r");
+                    break;
+                case '\t':
+                    builder.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20 || c > 0x7e) {
+                        builder.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        builder.append(c);
+                    }
+                    break;
+            }
+        }
+        return builder.append('"').toString();
+    }
+}
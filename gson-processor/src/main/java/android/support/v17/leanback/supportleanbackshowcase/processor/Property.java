@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.v17.leanback.supportleanbackshowcase.processor;
+
+import java.util.List;
+
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.TypeMirror;
+
+/**
+ * A single serialized field of a model.
+ */
+class Property {
+    final VariableElement mElement;
+    final TypeMirror mType;
+    final String mName;
+    final List<String> mNames;
+    final String mGetter;
+    final String mSetter;
+
+    Property(VariableElement element, TypeMirror type, List<String> names, String getter,
+            String setter) {
+        mElement = element;
+        mType = type;
+        mName = names.get(0);
+        mNames = names;
+        mGetter = getter;
+        mSetter = setter;
+    }
+
+    boolean needsAdapter() {
+        return !mType.getKind().isPrimitive()
+                && !mType.toString().equals(String.class.getName());
+    }
+
+    String adapterField() {
+        return mElement.getSimpleName() + "Adapter";
+    }
+
+    String read(String target) {
+        return mGetter != null ? target + "." + mGetter + "()"
+                : target + "." + mElement.getSimpleName();
+    }
+
+    String write(String target, String value) {
+        return mSetter != null ? target + "." + mSetter + "(" + value + ")"
+                : target + "." + mElement.getSimpleName() + " = " + value;
+    }
+}
@@ -0,0 +1,639 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package android.support.v17.leanback.supportleanbackshowcase.processor;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonPrimitive;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Compiles the JSON files listed by {@link PrecompileRawResources} into java code which builds the
+ * same models Gson would decode, so they can be created at runtime without any parsing.
+ *
+ * Every file is checked against its model while compiling: malformed JSON, keys which don't match
+ * a serialized field and values of the wrong type all fail the build. The files are read from the
+ * directory given by the {@value #OPTION_RAW_DIR} option.
+ */
+public class RawModelProcessor extends AbstractProcessor {
+
+    static final String OPTION_RAW_DIR = "rawResourceDir";
+
+    private static final String INDEX_NAME = "PrecompiledRawModels";
+    private static final String MODEL_SUFFIX = "_RawModel";
+
+    private static final Set<String> LIST_TYPES = new LinkedHashSet<>();
+    static {
+        LIST_TYPES.add(Iterable.class.getName());
+        LIST_TYPES.add(java.util.Collection.class.getName());
+        LIST_TYPES.add(List.class.getName());
+        LIST_TYPES.add(ArrayList.class.getName());
+    }
+
+    private Types mTypes;
+    private Filer mFiler;
+    private Messager mMessager;
+    private ModelScanner mScanner;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        mTypes = env.getTypeUtils();
+        mFiler = env.getFiler();
+        mMessager = env.getMessager();
+        mScanner = new ModelScanner(env);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(PrecompileRawResources.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_RAW_DIR);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(PrecompileRawResources.class)) {
+            String rawDir = processingEnv.getOptions().get(OPTION_RAW_DIR);
+            if (rawDir == null) {
+                error(element, "The " + OPTION_RAW_DIR + " option must point to res/raw");
+                continue;
+            }
+            TypeElement owner = (TypeElement) element;
+            Map<String, TypeMirror> resources = getResources(owner);
+            List<String> compiled = new ArrayList<>();
+            for (Map.Entry<String, TypeMirror> resource : resources.entrySet()) {
+                String name = resource.getKey();
+                if (getModelType(resource.getValue()).getKind() != TypeKind.DECLARED) {
+                    error(owner, name + " must be decoded into a model or an array of models");
+                    continue;
+                }
+                try {
+                    JsonElement json = readJson(new File(rawDir, name + ".json"));
+                    new ResourceWriter(owner, name, resource.getValue()).write(json);
+                    compiled.add(name);
+                } catch (ProcessingException e) {
+                    error(e.mElement, e.getMessage());
+                } catch (IOException e) {
+                    error(owner, name + ".json: " + e.getMessage());
+                }
+            }
+            try {
+                writeIndex(owner, resources, compiled);
+            } catch (IOException e) {
+                error(owner, "Unable to write " + INDEX_NAME + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The resource names and model types of the annotation, in declaration order.
+     */
+    private Map<String, TypeMirror> getResources(TypeElement owner) {
+        Map<String, TypeMirror> resources = new LinkedHashMap<>();
+        for (AnnotationMirror annotation : owner.getAnnotationMirrors()) {
+            if (!((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName()
+                    .contentEquals(PrecompileRawResources.class.getCanonicalName())) {
+                continue;
+            }
+            for (AnnotationValue value : annotation.getElementValues().values()) {
+                for (Object item : (List<?>) value.getValue()) {
+                    AnnotationMirror resource = (AnnotationMirror) ((AnnotationValue) item)
+                            .getValue();
+                    String name = null;
+                    TypeMirror type = null;
+                    for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry
+                            : resource.getElementValues().entrySet()) {
+                        if (entry.getKey().getSimpleName().contentEquals("name")) {
+                            name = (String) entry.getValue().getValue();
+                        } else {
+                            type = (TypeMirror) entry.getValue().getValue();
+                        }
+                    }
+                    if (resources.put(name, type) != null) {
+                        error(owner, "Resource " + name + " is listed more than once");
+                    }
+                }
+            }
+        }
+        return resources;
+    }
+
+    private JsonElement readJson(File file) throws IOException {
+        JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(file),
+                "UTF-8"));
+        try {
+            // read straight from a strict reader, Gson.fromJson would make it lenient
+            JsonElement json = new Gson().getAdapter(JsonElement.class).read(reader);
+            if (reader.peek() != JsonToken.END_DOCUMENT) {
+                throw new IOException("Unexpected content after the end of the document");
+            }
+            return json;
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void writeIndex(TypeElement owner, Map<String, TypeMirror> resources,
+            List<String> compiled) throws IOException {
+        String packageName = mScanner.getPackage(owner);
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n");
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("public final class ").append(INDEX_NAME).append(" {\n\n");
+        out.append("    private ").append(INDEX_NAME).append("() {\n");
+        out.append("    }\n\n");
+
+        out.append("    public static boolean contains(String name) {\n");
+        if (compiled.isEmpty()) {
+            out.append("        return false;\n");
+        } else {
+            out.append("        switch (name) {\n");
+            for (String name : compiled) {
+                out.append("            case ").append(ModelScanner.stringLiteral(name))
+                        .append(":\n");
+            }
+            out.append("                return true;\n");
+            out.append("            default:\n");
+            out.append("                return false;\n");
+            out.append("        }\n");
+        }
+        out.append("    }\n\n");
+
+        out.append("    public static Object create(String name) {\n");
+        out.append("        switch (name) {\n");
+        for (String name : compiled) {
+            out.append("            case ").append(ModelScanner.stringLiteral(name)).append(":\n");
+            out.append("                return ").append(getMethodName(name)).append("();\n");
+        }
+        out.append("            default:\n");
+        out.append("                return null;\n");
+        out.append("        }\n");
+        out.append("    }\n");
+
+        for (String name : compiled) {
+            TypeMirror type = resources.get(name);
+            out.append('\n');
+            out.append("    public static ").append(mTypes.erasure(type)).append(' ')
+                    .append(getMethodName(name)).append("() {\n");
+            out.append("        return ").append(getModelPackage(type)).append('.')
+                    .append(getModelClassName(name)).append(".create();\n");
+            out.append("    }\n");
+        }
+        out.append("}\n");
+
+        Writer writer = mFiler.createSourceFile(packageName + "." + INDEX_NAME, owner)
+                .openWriter();
+        try {
+            writer.write(out.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private String getModelPackage(TypeMirror type) {
+        return mScanner.getPackage((TypeElement) mTypes.asElement(getModelType(type)));
+    }
+
+    private static TypeMirror getModelType(TypeMirror type) {
+        while (type.getKind() == TypeKind.ARRAY) {
+            type = ((ArrayType) type).getComponentType();
+        }
+        return type;
+    }
+
+    /**
+     * e.g. cards_example gets CardsExample_RawModel.
+     */
+    private static String getModelClassName(String name) {
+        String methodName = getMethodName(name);
+        return Character.toUpperCase(methodName.charAt(0)) + methodName.substring(1)
+                + MODEL_SUFFIX;
+    }
+
+    /**
+     * e.g. cards_example gets cardsExample.
+     */
+    private static String getMethodName(String name) {
+        StringBuilder builder = new StringBuilder(name.length());
+        boolean upper = false;
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '_') {
+                upper = builder.length() > 0;
+            } else {
+                builder.append(upper ? Character.toUpperCase(c) : c);
+                upper = false;
+            }
+        }
+        return builder.toString();
+    }
+
+    private void error(Element element, String message) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+
+    /**
+     * Writes the class building the models of a single resource. Every JSON object becomes its
+     * own method, which keeps each of them well below the size limit of a method.
+     */
+    private class ResourceWriter {
+
+        private final TypeElement mOwner;
+        private final String mName;
+        private final TypeMirror mType;
+        private final String mPackage;
+        private final StringBuilder mMethods = new StringBuilder();
+        private final Set<Element> mOriginating = new LinkedHashSet<>();
+        private final Map<TypeElement, Map<String, Property>> mProperties = new HashMap<>();
+        private int mMethodCount;
+
+        ResourceWriter(TypeElement owner, String name, TypeMirror type) {
+            mOwner = owner;
+            mName = name;
+            mType = type;
+            mPackage = getModelPackage(type);
+            mOriginating.add(owner);
+        }
+
+        void write(JsonElement json) throws IOException, ProcessingException {
+            String value = value(json, mType, "$");
+            String className = getModelClassName(mName);
+
+            StringBuilder out = new StringBuilder();
+            out.append("// Generated by ").append(RawModelProcessor.class.getSimpleName())
+                    .append(" from res/raw/").append(mName).append(".json. Do not edit.\n");
+            out.append("package ").append(mPackage).append(";\n\n");
+            out.append("public final class ").append(className).append(" {\n\n");
+            out.append("    private ").append(className).append("() {\n");
+            out.append("    }\n\n");
+            out.append("    public static ").append(mTypes.erasure(mType)).append(" create() {\n");
+            out.append("        return ").append(value).append(";\n");
+            out.append("    }\n");
+            out.append(mMethods);
+            out.append("}\n");
+
+            Element[] originating = mOriginating.toArray(new Element[mOriginating.size()]);
+            Writer writer = mFiler.createSourceFile(mPackage + "." + className, originating)
+                    .openWriter();
+            try {
+                writer.write(out.toString());
+            } finally {
+                writer.close();
+            }
+        }
+
+        /**
+         * @return A java expression evaluating to the given JSON value decoded as the given type.
+         */
+        private String value(JsonElement json, TypeMirror type, String path)
+                throws ProcessingException {
+            if (type.getKind().isPrimitive()) {
+                if (!json.isJsonPrimitive()) {
+                    throw invalid(path, "expected a " + type);
+                }
+                return primitive(json.getAsJsonPrimitive(), (PrimitiveType) type, path);
+            }
+            if (json.isJsonNull()) {
+                return "null";
+            }
+            switch (type.getKind()) {
+                case ARRAY:
+                    return array(json, (ArrayType) type, path);
+                case DECLARED:
+                    break;
+                default:
+                    throw invalid(path, "unsupported type " + type);
+            }
+            DeclaredType declared = (DeclaredType) type;
+            TypeElement element = (TypeElement) declared.asElement();
+            String rawName = element.getQualifiedName().toString();
+            if (rawName.equals(String.class.getName())) {
+                if (!json.isJsonPrimitive()) {
+                    throw invalid(path, "expected a string");
+                }
+                return ModelScanner.stringLiteral(json.getAsString());
+            }
+            PrimitiveType unboxed = getUnboxedType(type);
+            if (unboxed != null) {
+                if (!json.isJsonPrimitive()) {
+                    throw invalid(path, "expected a " + unboxed);
+                }
+                return primitive(json.getAsJsonPrimitive(), unboxed, path);
+            }
+            if (element.getKind() == ElementKind.ENUM) {
+                return enumConstant(json, element, path);
+            }
+            if (LIST_TYPES.contains(rawName)) {
+                return list(json, declared, path);
+            }
+            if (!declared.getTypeArguments().isEmpty()) {
+                throw invalid(path, "unsupported type " + type);
+            }
+            return model(json, element, path);
+        }
+
+        private String primitive(JsonPrimitive json, PrimitiveType type, String path)
+                throws ProcessingException {
+            String value = json.getAsString();
+            try {
+                switch (type.getKind()) {
+                    case BOOLEAN:
+                        if (json.isBoolean() || value.equals("true") || value.equals("false")) {
+                            return value;
+                        }
+                        throw invalid(path, "expected a boolean");
+                    case BYTE:
+                        return "(byte) " + new BigDecimal(value).byteValueExact();
+                    case SHORT:
+                        return "(short) " + new BigDecimal(value).shortValueExact();
+                    case INT:
+                        return Integer.toString(new BigDecimal(value).intValueExact());
+                    case LONG:
+                        return new BigDecimal(value).longValueExact() + "L";
+                    case FLOAT: {
+                        float number = Float.parseFloat(value);
+                        if (Float.isNaN(number) || Float.isInfinite(number)) {
+                            throw invalid(path, "expected a finite number");
+                        }
+                        return number + "f";
+                    }
+                    case DOUBLE: {
+                        double number = Double.parseDouble(value);
+                        if (Double.isNaN(number) || Double.isInfinite(number)) {
+                            throw invalid(path, "expected a finite number");
+                        }
+                        return number + "d";
+                    }
+                    case CHAR:
+                        if (value.length() != 1) {
+                            throw invalid(path, "expected a single character");
+                        }
+                        return String.format("'\\u%04x'", (int) value.charAt(0));
+                    default:
+                        throw invalid(path, "unsupported type " + type);
+                }
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw invalid(path, "expected a " + type + " but was " + value);
+            }
+        }
+
+        private String enumConstant(JsonElement json, TypeElement element, String path)
+                throws ProcessingException {
+            checkVisible(element, path);
+            if (!json.isJsonPrimitive()) {
+                throw invalid(path, "expected a constant of " + element.getSimpleName());
+            }
+            String value = json.getAsString();
+            for (Element constant : element.getEnclosedElements()) {
+                if (constant.getKind() != ElementKind.ENUM_CONSTANT) {
+                    continue;
+                }
+                List<String> names = mScanner.getSerializedNames(constant);
+                if (names == null) {
+                    names = Collections.singletonList(constant.getSimpleName().toString());
+                }
+                if (names.contains(value)) {
+                    mOriginating.add(element);
+                    return element.getQualifiedName() + "." + constant.getSimpleName();
+                }
+            }
+            throw invalid(path, value + " is not a constant of " + element.getSimpleName());
+        }
+
+        private String array(JsonElement json, ArrayType type, String path)
+                throws ProcessingException {
+            if (!json.isJsonArray()) {
+                throw invalid(path, "expected an array");
+            }
+            TypeMirror component = type.getComponentType();
+            if (component.getKind() == TypeKind.DECLARED
+                    && !((DeclaredType) component).getTypeArguments().isEmpty()) {
+                throw invalid(path, "generic arrays are not supported");
+            }
+            JsonArray array = json.getAsJsonArray();
+            if (array.size() == 0) {
+                return "new " + arrayCreation(type, "0");
+            }
+            StringBuilder builder = new StringBuilder("new ").append(mTypes.erasure(type))
+                    .append(" {");
+            for (int i = 0; i < array.size(); i++) {
+                builder.append(i == 0 ? "\n                " : ",\n                ")
+                        .append(value(array.get(i), component, path + "[" + i + "]"));
+            }
+            return builder.append("\n        }").toString();
+        }
+
+        /**
+         * e.g. int[][] with length 0 gives int[0][].
+         */
+        private String arrayCreation(ArrayType type, String length) {
+            String name = mTypes.erasure(type).toString();
+            int bracket = name.indexOf('[');
+            return name.substring(0, bracket) + "[" + length + "]" + name.substring(bracket + 2);
+        }
+
+        private String list(JsonElement json, DeclaredType type, String path)
+                throws ProcessingException {
+            if (!json.isJsonArray()) {
+                throw invalid(path, "expected an array");
+            }
+            if (type.getTypeArguments().size() != 1
+                    || type.getTypeArguments().get(0).getKind() == TypeKind.WILDCARD) {
+                throw invalid(path, "unsupported type " + type);
+            }
+            TypeMirror elementType = type.getTypeArguments().get(0);
+            JsonArray array = json.getAsJsonArray();
+            List<String> values = new ArrayList<>();
+            for (int i = 0; i < array.size(); i++) {
+                values.add(value(array.get(i), elementType, path + "[" + i + "]"));
+            }
+
+            String method = "list" + mMethodCount++;
+            String listType = ArrayList.class.getName() + "<" + elementType + ">";
+            mMethods.append('\n');
+            mMethods.append("    private static ").append(listType).append(' ').append(method)
+                    .append("() {\n");
+            mMethods.append("        ").append(listType).append(" list = new ")
+                    .append(ArrayList.class.getName()).append("<>(").append(values.size())
+                    .append(");\n");
+            for (String value : values) {
+                mMethods.append("        list.add(").append(value).append(");\n");
+            }
+            mMethods.append("        return list;\n");
+            mMethods.append("    }\n");
+            return method + "()";
+        }
+
+        private String model(JsonElement json, TypeElement element, String path)
+                throws ProcessingException {
+            if (!json.isJsonObject()) {
+                throw invalid(path, "expected an object of type " + element.getSimpleName());
+            }
+            Map<String, Property> properties = getProperties(element, path);
+            List<String> statements = new ArrayList<>();
+            for (Map.Entry<String, JsonElement> entry : json.getAsJsonObject().entrySet()) {
+                String key = entry.getKey();
+                String keyPath = path + "." + key;
+                Property property = properties.get(key);
+                if (property == null) {
+                    throw invalid(keyPath, element.getSimpleName() + " has no field named " + key);
+                }
+                if (entry.getValue().isJsonNull() && property.mType.getKind().isPrimitive()) {
+                    // Gson leaves primitive fields untouched when the value is null
+                    continue;
+                }
+                statements.add(property.write("value",
+                        value(entry.getValue(), property.mType, keyPath)));
+            }
+
+            String name = element.getQualifiedName().toString();
+            String method = "model" + mMethodCount++;
+            mMethods.append('\n');
+            mMethods.append("    private static ").append(name).append(' ').append(method)
+                    .append("() {\n");
+            mMethods.append("        ").append(name).append(" value = new ").append(name)
+                    .append("();\n");
+            for (String statement : statements) {
+                mMethods.append("        ").append(statement).append(";\n");
+            }
+            for (String callback : mScanner.getDeserializedCallbacks(element)) {
+                mMethods.append("        value.").append(callback).append("();\n");
+            }
+            mMethods.append("        return value;\n");
+            mMethods.append("    }\n");
+            return method + "()";
+        }
+
+        /**
+         * @return The properties of the model by serialized name, alternates included.
+         */
+        private Map<String, Property> getProperties(TypeElement element, String path)
+                throws ProcessingException {
+            Map<String, Property> properties = mProperties.get(element);
+            if (properties != null) {
+                return properties;
+            }
+            mScanner.checkInstantiable(element);
+            checkVisible(element, path);
+            for (ExecutableElement constructor
+                    : ElementFilter.constructorsIn(element.getEnclosedElements())) {
+                if (constructor.getParameters().isEmpty()) {
+                    checkVisible(constructor, path);
+                }
+            }
+            properties = new HashMap<>();
+            for (Property property : mScanner.collectProperties(element)) {
+                if (property.mSetter != null) {
+                    for (ExecutableElement method : ElementFilter.methodsIn(
+                            processingEnv.getElementUtils().getAllMembers(element))) {
+                        if (method.getSimpleName().contentEquals(property.mSetter)
+                                && method.getParameters().size() == 1) {
+                            checkVisible(method, path);
+                        }
+                    }
+                } else {
+                    checkVisible(property.mElement, path);
+                }
+                for (String name : property.mNames) {
+                    properties.put(name, property);
+                }
+            }
+            mProperties.put(element, properties);
+            mOriginating.add(element);
+            return properties;
+        }
+
+        /**
+         * Generated code lives in the package of the resource's model, anything it touches in
+         * other packages must be public.
+         */
+        private void checkVisible(Element element, String path) throws ProcessingException {
+            Set<Modifier> modifiers = element.getModifiers();
+            String packageName = processingEnv.getElementUtils().getPackageOf(element)
+                    .getQualifiedName().toString();
+            if (modifiers.contains(Modifier.PRIVATE)
+                    || (!packageName.equals(mPackage) && !modifiers.contains(Modifier.PUBLIC))) {
+                throw invalid(path, element.getEnclosingElement().getSimpleName() + "."
+                        + element.getSimpleName() + " is not visible from " + mPackage);
+            }
+            // nested classes are only visible when their outer classes are
+            if (element.getEnclosingElement() instanceof TypeElement) {
+                checkVisible(element.getEnclosingElement(), path);
+            }
+        }
+
+        private PrimitiveType getUnboxedType(TypeMirror type) {
+            try {
+                return mTypes.unboxedType(type);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+
+        private ProcessingException invalid(String path, String message) {
+            return new ProcessingException(mOwner, mName + ".json: " + path + ": " + message);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.processor;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.MirroredTypeException;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates the ResourceIndex class requested by {@link GenerateResourceIndex}.
+ *
+ * For every indexed type, the files of the matching resource directories (qualified ones
+ * included) are listed and each name is mapped to the corresponding R field with a string switch.
+ * The resources are read from the directory given by the {@value #OPTION_RES_DIR} option.
+ */
+public class ResourceIndexProcessor extends AbstractProcessor {
+
+    static final String OPTION_RES_DIR = "resourceDir";
+
+    private static final String INDEX_NAME = "ResourceIndex";
+
+    private Filer mFiler;
+    private Messager mMessager;
+    private ModelScanner mScanner;
+
+    @Override
+    public synchronized void init(ProcessingEnvironment env) {
+        super.init(env);
+        mFiler = env.getFiler();
+        mMessager = env.getMessager();
+        mScanner = new ModelScanner(env);
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateResourceIndex.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_RES_DIR);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateResourceIndex.class)) {
+            String resDir = processingEnv.getOptions().get(OPTION_RES_DIR);
+            if (resDir == null || !new File(resDir).isDirectory()) {
+                error(element, "The " + OPTION_RES_DIR + " option must point to res");
+                continue;
+            }
+            TypeElement owner = (TypeElement) element;
+            GenerateResourceIndex annotation = owner.getAnnotation(GenerateResourceIndex.class);
+            try {
+                writeIndex(owner, getRClassName(annotation), annotation.types(),
+                        new File(resDir));
+            } catch (ProcessingException e) {
+                error(e.mElement, e.getMessage());
+            } catch (IOException e) {
+                error(owner, "Unable to write " + INDEX_NAME + ": " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private static String getRClassName(GenerateResourceIndex annotation) {
+        try {
+            return annotation.rClass().getCanonicalName();
+        } catch (MirroredTypeException e) {
+            // the class isn't compiled yet, which is always the case for R
+            TypeMirror type = e.getTypeMirror();
+            return type.toString();
+        }
+    }
+
+    private void writeIndex(TypeElement owner, String rClass, String[] types, File resDir)
+            throws IOException, ProcessingException {
+        String packageName = mScanner.getPackage(owner);
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n");
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("public final class ").append(INDEX_NAME).append(" {\n\n");
+        out.append("    private ").append(INDEX_NAME).append("() {\n");
+        out.append("    }\n");
+        for (String type : types) {
+            if (!SourceVersion.isIdentifier(type) || SourceVersion.isKeyword(type)) {
+                throw new ProcessingException(owner, "Invalid resource type " + type);
+            }
+            out.append('\n');
+            out.append("    /**\n");
+            out.append("     * @return The id of the ").append(type)
+                    .append(" resource with the given name, 0 if there is none.\n");
+            out.append("     */\n");
+            out.append("    public static int ").append(type).append("(String name) {\n");
+            out.append("        if (name == null) {\n");
+            out.append("            return 0;\n");
+            out.append("        }\n");
+            out.append("        switch (name) {\n");
+            for (String name : listResources(owner, resDir, type)) {
+                out.append("            case ").append(ModelScanner.stringLiteral(name))
+                        .append(":\n");
+                out.append("                return ").append(rClass).append('.').append(type)
+                        .append('.').append(name).append(";\n");
+            }
+            out.append("            default:\n");
+            out.append("                return 0;\n");
+            out.append("        }\n");
+            out.append("    }\n");
+        }
+        out.append("}\n");
+
+        Writer writer = mFiler.createSourceFile(packageName + "." + INDEX_NAME, owner)
+                .openWriter();
+        try {
+            writer.write(out.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return The sorted names of the resources of the given type, in any configuration.
+     */
+    private static Set<String> listResources(TypeElement owner, File resDir, String type)
+            throws ProcessingException {
+        Set<String> names = new TreeSet<>();
+        File[] dirs = resDir.listFiles();
+        if (dirs == null) {
+            return names;
+        }
+        for (File dir : dirs) {
+            if (!dir.isDirectory()
+                    || !(dir.getName().equals(type) || dir.getName().startsWith(type + "-"))) {
+                continue;
+            }
+            File[] files = dir.listFiles();
+            if (files == null) {
+                continue;
+            }
+            for (File file : files) {
+                if (file.isHidden()) {
+                    continue;
+                }
+                // the resource name stops at the first dot, which drops .9.png as a whole
+                String fileName = file.getName();
+                int dot = fileName.indexOf('.');
+                String name = dot < 0 ? fileName : fileName.substring(0, dot);
+                if (!SourceVersion.isIdentifier(name) || SourceVersion.isKeyword(name)) {
+                    throw new ProcessingException(owner, "Invalid resource name " + fileName
+                            + " in " + dir.getName());
+                }
+                names.add(name);
+            }
+        }
+        return names;
+    }
+
+    private void error(Element element, String message) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}
@@ -0,0 +1,381 @@
+/*
+ * Copyright (C) 2017 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package android.support.v17.leanback.supportleanbackshowcase.processor;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.Filer;
+import javax.annotation.processing.Messager;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.Types;
+import javax.tools.Diagnostic;
+
+/**
+ * Generates a Gson TypeAdapter for every class annotated with {@link GenerateTypeAdapter}, plus a
+ * single TypeAdapterFactory which hands them out. Registering that factory on a Gson instance
+ * replaces the reflective adapters for all annotated models.
+ *
+ * The factory is generated in the package given by the {@value #OPTION_FACTORY_PACKAGE} option.
+ */
+public class TypeAdapterProcessor extends AbstractProcessor {
+
+    static final String OPTION_FACTORY_PACKAGE = "typeAdapterFactoryPackage";
+
+    private static final String FACTORY_NAME = "GeneratedTypeAdapterFactory";
+    private static final String ADAPTER_SUFFIX = "_TypeAdapter";
+
+    private static final String GSON = "com.google.gson.Gson";
+    private static final String TYPE_ADAPTER = "com.google.gson.TypeAdapter";
+    private static final String TYPE_TOKEN = "com.google.gson.reflect.TypeToken";
+    private static final String JSON_READER = "com.google.gson.stream.JsonReader";
+    private static final String JSON_WRITER = "com.google.gson.stream.JsonWriter";
+    private static final String JSON_TOKEN = "com.google.gson.stream.JsonToken";
+
+    private Types mTypes;
+    private Filer mFiler;
+    private Messager mMessager;
+    private ModelScanner mScanner;
+
+    // adapters generated so far, the factory is written in the first round which finds no more
+    // models, so it still goes through annotation processing like any other generated source
+    private final List<TypeElement> mModels = new ArrayList<>();
+    private boolean mFactoryWritten;
+
+    @Override
+    public synchronized void init(javax.annotation.processing.ProcessingEnvironment env) {
+        super.init(env);
+        mScanner = new ModelScanner(env);
+        mTypes = env.getTypeUtils();
+        mFiler = env.getFiler();
+        mMessager = env.getMessager();
+    }
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return Collections.singleton(GenerateTypeAdapter.class.getCanonicalName());
+    }
+
+    @Override
+    public Set<String> getSupportedOptions() {
+        return Collections.singleton(OPTION_FACTORY_PACKAGE);
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        boolean found = false;
+        for (Element element : roundEnv.getElementsAnnotatedWith(GenerateTypeAdapter.class)) {
+            if (element.getKind() != ElementKind.CLASS) {
+                error(element, "@GenerateTypeAdapter can only be used on classes");
+                continue;
+            }
+            TypeElement model = (TypeElement) element;
+            if (mFactoryWritten) {
+                error(model, "@GenerateTypeAdapter found after " + FACTORY_NAME
+                        + " was generated");
+                continue;
+            }
+            found = true;
+            try {
+                writeAdapter(model);
+                mModels.add(model);
+            } catch (ProcessingException e) {
+                error(e.mElement, e.getMessage());
+            } catch (IOException e) {
+                error(model, "Unable to write type adapter: " + e.getMessage());
+            }
+        }
+        // the adapters written in a round start another round, which only finds them
+        if (!found && !mFactoryWritten && !mModels.isEmpty()) {
+            mFactoryWritten = true;
+            try {
+                writeFactory();
+            } catch (IOException e) {
+                error(null, "Unable to write type adapter factory: " + e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    private void writeAdapter(TypeElement model) throws IOException, ProcessingException {
+        String packageName = mScanner.getPackage(model);
+        String modelName = model.getQualifiedName().toString();
+        String adapterName = getAdapterSimpleName(model);
+        mScanner.checkInstantiable(model);
+        List<Property> properties = mScanner.collectProperties(model);
+        List<String> callbacks = mScanner.getDeserializedCallbacks(model);
+
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n");
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("public final class ").append(adapterName).append(" extends ")
+                .append(TYPE_ADAPTER).append('<').append(modelName).append("> {\n");
+
+        // adapters for every non primitive, non string property
+        for (Property property : properties) {
+            if (property.needsAdapter()) {
+                out.append("    private final ").append(TYPE_ADAPTER).append('<')
+                        .append(boxed(property.mType)).append("> ")
+                        .append(property.adapterField()).append(";\n");
+            }
+        }
+        out.append('\n');
+        out.append("    @SuppressWarnings(\"unchecked\")\n");
+        out.append("    public ").append(adapterName).append("(").append(GSON).append(" gson) {\n");
+        for (Property property : properties) {
+            if (property.needsAdapter()) {
+                out.append("        ").append(property.adapterField()).append(" = (")
+                        .append(TYPE_ADAPTER).append('<').append(boxed(property.mType))
+                        .append(">) gson.getAdapter(").append(TYPE_TOKEN).append(".get(")
+                        .append(typeExpression(property.mElement, property.mType)).append("));\n");
+            }
+        }
+        out.append("    }\n\n");
+
+        // write
+        out.append("    @Override\n");
+        out.append("    public void write(").append(JSON_WRITER).append(" out, ").append(modelName)
+                .append(" value) throws java.io.IOException {\n");
+        out.append("        if (value == null) {\n");
+        out.append("            out.nullValue();\n");
+        out.append("            return;\n");
+        out.append("        }\n");
+        out.append("        out.beginObject();\n");
+        for (Property property : properties) {
+            String getter = property.read("value");
+            out.append("        out.name(").append(ModelScanner.stringLiteral(property.mName))
+                    .append(");\n");
+            if (property.needsAdapter()) {
+                out.append("        ").append(property.adapterField()).append(".write(out, ")
+                        .append(getter).append(");\n");
+            } else if (property.mType.getKind() == TypeKind.FLOAT) {
+                out.append("        out.value((double) ").append(getter).append(");\n");
+            } else if (property.mType.getKind() == TypeKind.CHAR) {
+                out.append("        out.value(String.valueOf(").append(getter).append("));\n");
+            } else {
+                out.append("        out.value(").append(getter).append(");\n");
+            }
+        }
+        out.append("        out.endObject();\n");
+        out.append("    }\n\n");
+
+        // read
+        out.append("    @Override\n");
+        out.append("    public ").append(modelName).append(" read(").append(JSON_READER)
+                .append(" in) throws java.io.IOException {\n");
+        out.append("        if (in.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+        out.append("            in.nextNull();\n");
+        out.append("            return null;\n");
+        out.append("        }\n");
+        out.append("        ").append(modelName).append(" result = new ").append(modelName)
+                .append("();\n");
+        out.append("        in.beginObject();\n");
+        out.append("        while (in.hasNext()) {\n");
+        out.append("            switch (in.nextName()) {\n");
+        for (Property property : properties) {
+            for (String name : property.mNames) {
+                out.append("                case ").append(ModelScanner.stringLiteral(name))
+                        .append(":\n");
+            }
+            appendRead(out, property);
+            out.append("                    break;\n");
+        }
+        out.append("                default:\n");
+        out.append("                    in.skipValue();\n");
+        out.append("                    break;\n");
+        out.append("            }\n");
+        out.append("        }\n");
+        out.append("        in.endObject();\n");
+        for (String callback : callbacks) {
+            out.append("        result.").append(callback).append("();\n");
+        }
+        out.append("        return result;\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        Writer writer = mFiler.createSourceFile(packageName + "." + adapterName, model)
+                .openWriter();
+        try {
+            writer.write(out.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void appendRead(StringBuilder out, Property property) {
+        String indent = "                    ";
+        if (property.needsAdapter()) {
+            out.append(indent).append(property.write("result",
+                    property.adapterField() + ".read(in)")).append(";\n");
+            return;
+        }
+        boolean isString = !property.mType.getKind().isPrimitive();
+        out.append(indent).append("if (in.peek() == ").append(JSON_TOKEN).append(".NULL) {\n");
+        out.append(indent).append("    in.nextNull();\n");
+        if (isString) {
+            out.append(indent).append("    ").append(property.write("result", "null"))
+                    .append(";\n");
+        }
+        out.append(indent).append("} else {\n");
+        String value;
+        switch (property.mType.getKind()) {
+            case BOOLEAN:
+                value = "in.peek() == " + JSON_TOKEN + ".STRING"
+                        + " ? Boolean.parseBoolean(in.nextString()) : in.nextBoolean()";
+                break;
+            case BYTE:
+                value = "(byte) in.nextInt()";
+                break;
+            case SHORT:
+                value = "(short) in.nextInt()";
+                break;
+            case INT:
+                value = "in.nextInt()";
+                break;
+            case LONG:
+                value = "in.nextLong()";
+                break;
+            case FLOAT:
+                value = "(float) in.nextDouble()";
+                break;
+            case DOUBLE:
+                value = "in.nextDouble()";
+                break;
+            case CHAR:
+                value = "in.nextString().charAt(0)";
+                break;
+            default:
+                value = "in.nextString()";
+                break;
+        }
+        out.append(indent).append("    ").append(property.write("result", value)).append(";\n");
+        out.append(indent).append("}\n");
+    }
+
+    private void writeFactory() throws IOException {
+        String packageName = processingEnv.getOptions().get(OPTION_FACTORY_PACKAGE);
+        if (packageName == null) {
+            packageName = mScanner.getPackage(mModels.get(0));
+        }
+        StringBuilder out = new StringBuilder();
+        out.append("// Generated by ").append(getClass().getSimpleName()).append(". Do not edit.\n");
+        out.append("package ").append(packageName).append(";\n\n");
+        out.append("public final class ").append(FACTORY_NAME)
+                .append(" implements com.google.gson.TypeAdapterFactory {\n\n");
+        out.append("    @Override\n");
+        out.append("    @SuppressWarnings(\"unchecked\")\n");
+        out.append("    public <T> ").append(TYPE_ADAPTER).append("<T> create(").append(GSON)
+                .append(" gson, ").append(TYPE_TOKEN).append("<T> type) {\n");
+        out.append("        Class<? super T> rawType = type.getRawType();\n");
+        for (TypeElement model : mModels) {
+            out.append("        if (rawType == ").append(model.getQualifiedName())
+                    .append(".class) {\n");
+            out.append("            return (").append(TYPE_ADAPTER).append("<T>) new ")
+                    .append(mScanner.getPackage(model)).append('.')
+                    .append(getAdapterSimpleName(model)).append("(gson);\n");
+            out.append("        }\n");
+        }
+        out.append("        return null;\n");
+        out.append("    }\n");
+        out.append("}\n");
+
+        Element[] originating = mModels.toArray(new Element[mModels.size()]);
+        Writer writer = mFiler.createSourceFile(packageName + "." + FACTORY_NAME, originating)
+                .openWriter();
+        try {
+            writer.write(out.toString());
+        } finally {
+            writer.close();
+        }
+    }
+
+    /**
+     * @return A java expression evaluating to the java.lang.reflect.Type of the given mirror.
+     */
+    private String typeExpression(Element element, TypeMirror type) throws ProcessingException {
+        switch (type.getKind()) {
+            case DECLARED: {
+                DeclaredType declared = (DeclaredType) type;
+                String raw = mTypes.erasure(type).toString() + ".class";
+                if (declared.getTypeArguments().isEmpty()) {
+                    return raw;
+                }
+                StringBuilder builder = new StringBuilder(TYPE_TOKEN).append(".getParameterized(")
+                        .append(raw);
+                for (TypeMirror argument : declared.getTypeArguments()) {
+                    builder.append(", ").append(typeExpression(element, argument));
+                }
+                return builder.append(").getType()").toString();
+            }
+            case ARRAY: {
+                TypeMirror component = ((ArrayType) type).getComponentType();
+                if (component.getKind() == TypeKind.DECLARED
+                        && !((DeclaredType) component).getTypeArguments().isEmpty()) {
+                    throw new ProcessingException(element, "Generic arrays are not supported");
+                }
+                return mTypes.erasure(type).toString() + ".class";
+            }
+            default:
+                if (type.getKind().isPrimitive()) {
+                    return type.toString() + ".class";
+                }
+                throw new ProcessingException(element, "Unsupported type " + type);
+        }
+    }
+
+    private String boxed(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return mTypes.boxedClass((javax.lang.model.type.PrimitiveType) type)
+                    .getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    /**
+     * Nested classes are flattened, e.g. Outer.Inner gets Outer_Inner_TypeAdapter.
+     */
+    private String getAdapterSimpleName(TypeElement model) {
+        String packageName = mScanner.getPackage(model);
+        String name = model.getQualifiedName().toString();
+        if (!packageName.isEmpty()) {
+            name = name.substring(packageName.length() + 1);
+        }
+        return name.replace('.', '_') + ADAPTER_SUFFIX;
+    }
+
+    private void error(Element element, String message) {
+        mMessager.printMessage(Diagnostic.Kind.ERROR, message, element);
+    }
+}